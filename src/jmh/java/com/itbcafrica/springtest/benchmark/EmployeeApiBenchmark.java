@@ -0,0 +1,72 @@
+package com.itbcafrica.springtest.benchmark;
+
+import com.itbcafrica.springtest.controller.EmployeeController;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hot paths of the REST API, called through the {@link EmployeeController} bean (no HTTP layer)
+ * so that controller, service, cache and repository costs are measured together.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeApiBenchmark{
+
+    private static final int PAGE_SIZE=50;
+
+    private EmployeeController employeeController;
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup(EmployeeDataSet dataSet){
+        employeeController=dataSet.getBean(EmployeeController.class);
+        employeeRepository=dataSet.getBean(EmployeeRepository.class);
+    }
+
+    @Benchmark
+    public Employee createEmployee(EmployeeDataSet dataSet){
+        return employeeController.createEmployee(null, dataSet.nextNewEmployee());
+    }
+
+    @Benchmark
+    public Object getEmployeeById(EmployeeDataSet dataSet){
+        return employeeController.getEmployeeById(dataSet.randomId(), null);
+    }
+
+    // bypasses the cache to measure the database read path alone
+    @Benchmark
+    public Object getEmployeeByIdUncached(EmployeeDataSet dataSet){
+        return employeeRepository.findById(dataSet.randomId());
+    }
+
+    @Benchmark
+    public Object getAllEmployees(){
+        return employeeController.getAllEmployees(null);
+    }
+
+    @Benchmark
+    public Object getEmployeesAfter(EmployeeDataSet dataSet){
+        return employeeController.getEmployeesAfter(dataSet.randomId(), PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Object getEmployeesPage(EmployeeDataSet dataSet){
+        return employeeController.getEmployeesPage(dataSet.randomIndex()/PAGE_SIZE, PAGE_SIZE, null);
+    }
+
+    @Benchmark
+    public Object updateEmployee(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        Employee employee=Employee.builder().firstName(EmployeeDataSet.firstName(index)).lastName(EmployeeDataSet.lastName(index)).email(EmployeeDataSet.email(index)).build();
+        return employeeController.updateEmployee(dataSet.employeeIds.get(index), employee, null);
+    }
+
+}
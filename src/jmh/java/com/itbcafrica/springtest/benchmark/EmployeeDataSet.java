@@ -0,0 +1,96 @@
+package com.itbcafrica.springtest.benchmark;
+
+import com.itbcafrica.springtest.SpringTestApplication;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Application context booted against an embedded H2 database seeded with {@code datasetSize} employees,
+ * shared by all benchmark threads of a trial.
+ */
+@State(Scope.Benchmark)
+public class EmployeeDataSet{
+
+    private static final int SEED_BATCH_SIZE=1000;
+
+    @Param({"1000","100000"})
+    public int datasetSize;
+
+    public ConfigurableApplicationContext context;
+
+    public List<Long> employeeIds;
+
+    private final AtomicLong sequence=new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void boot(){
+        context=new SpringApplicationBuilder(SpringTestApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.show-sql=false",
+                        "app.warmup.enabled=false",
+                        "logging.level.root=WARN")
+                .run();
+        EmployeeService employeeService=context.getBean(EmployeeService.class);
+        employeeIds=new ArrayList<>(datasetSize);
+        for(int i=0; i<datasetSize; i+=SEED_BATCH_SIZE){
+            List<Employee> batch=new ArrayList<>(SEED_BATCH_SIZE);
+            for(int j=i; j<Math.min(i+SEED_BATCH_SIZE, datasetSize); j++){
+                batch.add(newEmployee(j));
+            }
+            for(Employee employee: employeeService.saveEmployees(batch)){
+                employeeIds.add(employee.getId());
+            }
+        }
+        sequence.set(datasetSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown(){
+        context.close();
+    }
+
+    public <T> T getBean(Class<T> type){
+        return context.getBean(type);
+    }
+
+    public Long randomId(){
+        return employeeIds.get(ThreadLocalRandom.current().nextInt(employeeIds.size()));
+    }
+
+    // index of a seeded employee, usable with firstName/lastName/email below
+    public int randomIndex(){
+        return ThreadLocalRandom.current().nextInt(datasetSize);
+    }
+
+    // employee that does not exist yet, with an email that is unique for the whole trial
+    public Employee nextNewEmployee(){
+        return newEmployee(sequence.getAndIncrement());
+    }
+
+    public static String firstName(long index){
+        return "First"+index;
+    }
+
+    public static String lastName(long index){
+        return "Last"+index;
+    }
+
+    public static String email(long index){
+        return "employee"+index+"@benchmark.local";
+    }
+
+    private static Employee newEmployee(long index){
+        return Employee.builder().firstName(firstName(index)).lastName(lastName(index)).email(email(index)).build();
+    }
+
+}
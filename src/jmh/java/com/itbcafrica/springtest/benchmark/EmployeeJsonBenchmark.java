@@ -0,0 +1,137 @@
+package com.itbcafrica.springtest.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * JSON serialization of {@link Employee} entities with a default ObjectMapper, against
+ * {@link EmployeeSummary} projections with the Blackbird module and filter provider registered by
+ * JacksonConfig, and the same projections and request bodies in the Smile and CBOR formats that
+ * JacksonConfig offers next to JSON. Payload sizes, raw and gzipped, are printed once per trial.
+ * Needs no application context.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeJsonBenchmark{
+
+    @Param({"1","50"})
+    public int listSize;
+
+    private ObjectWriter writer;
+
+    private List<Employee> employees;
+
+    private ObjectWriter summaryWriter;
+
+    private List<EmployeeSummary> summaries;
+
+    private ObjectWriter smileWriter;
+
+    private ObjectWriter cborWriter;
+
+    private ObjectReader jsonReader;
+
+    private ObjectReader smileReader;
+
+    private ObjectReader cborReader;
+
+    private byte[] jsonEmployees;
+
+    private byte[] smileEmployees;
+
+    private byte[] cborEmployees;
+
+    @Setup(Level.Trial)
+    public void setup(){
+        ObjectMapper objectMapper=Jackson2ObjectMapperBuilder.json().build();
+        writer=objectMapper.writer();
+        ObjectMapper summaryMapper=Jackson2ObjectMapperBuilder.json().modulesToInstall(new BlackbirdModule()).filters(new SimpleFilterProvider().setFailOnUnknownId(false)).build();
+        summaryWriter=summaryMapper.writer();
+        employees=new ArrayList<>(listSize);
+        summaries=new ArrayList<>(listSize);
+        for(int i=0; i<listSize; i++){
+            employees.add(Employee.builder().id((long) i).firstName(EmployeeDataSet.firstName(i)).lastName(EmployeeDataSet.lastName(i)).email(EmployeeDataSet.email(i)).build());
+            summaries.add(EmployeeSummary.of(employees.get(i)));
+        }
+        ObjectMapper smileMapper=Jackson2ObjectMapperBuilder.smile().modulesToInstall(new BlackbirdModule()).filters(new SimpleFilterProvider().setFailOnUnknownId(false)).build();
+        ObjectMapper cborMapper=Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new BlackbirdModule()).filters(new SimpleFilterProvider().setFailOnUnknownId(false)).build();
+        smileWriter=smileMapper.writer();
+        cborWriter=cborMapper.writer();
+        jsonReader=summaryMapper.readerForListOf(Employee.class);
+        smileReader=smileMapper.readerForListOf(Employee.class);
+        cborReader=cborMapper.readerForListOf(Employee.class);
+        try{
+            jsonEmployees=summaryWriter.writeValueAsBytes(employees);
+            smileEmployees=smileWriter.writeValueAsBytes(employees);
+            cborEmployees=cborWriter.writeValueAsBytes(employees);
+            System.out.printf("%n%d employees: json=%d bytes (gzip %d), smile=%d (gzip %d), cbor=%d (gzip %d)%n", listSize,
+                    jsonEmployees.length, gzippedSize(jsonEmployees), smileEmployees.length, gzippedSize(smileEmployees), cborEmployees.length, gzippedSize(cborEmployees));
+        }catch(IOException e){
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int gzippedSize(byte[] payload) throws IOException{
+        ByteArrayOutputStream compressed=new ByteArrayOutputStream();
+        try(GZIPOutputStream gzip=new GZIPOutputStream(compressed)){
+            gzip.write(payload);
+        }
+        return compressed.size();
+    }
+
+    @Benchmark
+    public byte[] serializeEmployees() throws JsonProcessingException{
+        return writer.writeValueAsBytes(employees);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaries() throws JsonProcessingException{
+        return summaryWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializeSummariesSmile() throws JsonProcessingException{
+        return smileWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public byte[] serializeSummariesCbor() throws JsonProcessingException{
+        return cborWriter.writeValueAsBytes(summaries);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployees() throws IOException{
+        return jsonReader.readValue(jsonEmployees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeesSmile() throws IOException{
+        return smileReader.readValue(smileEmployees);
+    }
+
+    @Benchmark
+    public List<Employee> deserializeEmployeesCbor() throws IOException{
+        return cborReader.readValue(cborEmployees);
+    }
+
+}
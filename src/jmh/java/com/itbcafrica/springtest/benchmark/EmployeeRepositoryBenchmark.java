@@ -0,0 +1,64 @@
+package com.itbcafrica.springtest.benchmark;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.repository.EmployeeRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the four name lookup strategies of {@link EmployeeRepository} (JPQL vs native SQL,
+ * index vs named parameters) on the same data set.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmployeeRepositoryBenchmark{
+
+    private EmployeeRepository employeeRepository;
+
+    @Setup(Level.Trial)
+    public void setup(EmployeeDataSet dataSet){
+        employeeRepository=dataSet.getBean(EmployeeRepository.class);
+    }
+
+    @Benchmark
+    public Employee findByJPQL(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        return employeeRepository.findByJPQL(EmployeeDataSet.firstName(index), EmployeeDataSet.lastName(index));
+    }
+
+    @Benchmark
+    public Employee findByJPQLNamedParams(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        return employeeRepository.findByJPQLNamedParams(EmployeeDataSet.firstName(index), EmployeeDataSet.lastName(index));
+    }
+
+    @Benchmark
+    public Employee findByNativeSQL(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        return employeeRepository.findByNativeSQL(EmployeeDataSet.firstName(index), EmployeeDataSet.lastName(index));
+    }
+
+    @Benchmark
+    public Employee findByNativeSQLNamedParams(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        return employeeRepository.findByNativeSQLNamedParams(EmployeeDataSet.firstName(index), EmployeeDataSet.lastName(index));
+    }
+
+    @Benchmark
+    public Object findAllByJPQL(EmployeeDataSet dataSet){
+        int index=dataSet.randomIndex();
+        return employeeRepository.findAllByJPQL(EmployeeDataSet.firstName(index), EmployeeDataSet.lastName(index), PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Object findByEmail(EmployeeDataSet dataSet){
+        return employeeRepository.findByEmail(EmployeeDataSet.email(dataSet.randomIndex()));
+    }
+
+}
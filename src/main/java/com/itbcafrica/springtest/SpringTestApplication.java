@@ -2,12 +2,18 @@ package com.itbcafrica.springtest;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpringTestApplication{
 
+    // startup steps recorded for StartupTimingReport and /actuator/startup
+    static final int STARTUP_STEPS_CAPACITY=4096;
+
     public static void main(String[] args){
-        SpringApplication.run(SpringTestApplication.class, args);
+        SpringApplication application=new SpringApplication(SpringTestApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS_CAPACITY));
+        application.run(args);
     }
 
 }
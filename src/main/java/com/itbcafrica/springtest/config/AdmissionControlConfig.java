@@ -0,0 +1,45 @@
+package com.itbcafrica.springtest.config;
+
+import com.itbcafrica.springtest.controller.AdmissionControlInterceptor;
+import com.itbcafrica.springtest.service.support.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+// adaptive concurrency limits on /api/employees, separate budgets for reads and writes, see application.properties;
+// gauges and the shed counter go to the global registry, which Boot's registries are added to
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(value="app.admission.enabled",matchIfMissing=true)
+public class AdmissionControlConfig implements WebMvcConfigurer{
+
+    private AdmissionControlInterceptor admissionControlInterceptor;
+
+    public AdmissionControlConfig(@Value("${app.admission.reads.initial-limit:50}") int readInitialLimit,
+                                  @Value("${app.admission.reads.min-limit:4}") int readMinLimit,
+                                  @Value("${app.admission.reads.max-limit:200}") int readMaxLimit,
+                                  @Value("${app.admission.writes.initial-limit:20}") int writeInitialLimit,
+                                  @Value("${app.admission.writes.min-limit:2}") int writeMinLimit,
+                                  @Value("${app.admission.writes.max-limit:100}") int writeMaxLimit,
+                                  @Value("${app.admission.latency-tolerance:2.0}") double latencyTolerance,
+                                  @Value("${app.admission.latency-floor:20ms}") Duration latencyFloor,
+                                  @Value("${app.admission.max-queue-wait:50ms}") Duration maxQueueWait,
+                                  @Value("${app.admission.retry-after-seconds:1}") long retryAfterSeconds){
+        this.admissionControlInterceptor=new AdmissionControlInterceptor(
+                ()->new AdaptiveConcurrencyLimiter(readInitialLimit, readMinLimit, readMaxLimit, latencyTolerance, latencyFloor),
+                ()->new AdaptiveConcurrencyLimiter(writeInitialLimit, writeMinLimit, writeMaxLimit, latencyTolerance, latencyFloor),
+                maxQueueWait, retryAfterSeconds, Metrics.globalRegistry);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry){
+        registry.addInterceptor(admissionControlInterceptor).addPathPatterns("/api/employees", "/api/employees/**");
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.itbcafrica.springtest.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// cache sizes and TTLs are set with spring.cache.caffeine.spec in application.properties.
+// The cache advice wraps the transaction advice: a hit opens no transaction and a miss is cached after commit
+@Configuration
+@EnableCaching(order=Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig{
+
+    public static final String EMPLOYEES_CACHE="employees";
+
+}
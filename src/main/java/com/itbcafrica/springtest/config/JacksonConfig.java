@@ -0,0 +1,43 @@
+package com.itbcafrica.springtest.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonConfig{
+
+    // generates property accessors with LambdaMetafactory instead of calling getters reflectively
+    @Bean
+    public Module blackbirdModule(){
+        return new BlackbirdModule();
+    }
+
+    // filtered types (EmployeeSummary) serialize every property unless a request selects fields
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer defaultFilterProvider(){
+        return builder->builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    // binary alternatives to JSON for service-to-service calls, picked by Accept / Content-Type:
+    // application/x-jackson-smile and application/cbor. Built from Boot's builder so they get the same
+    // modules and filter provider as the JSON mapper; they replace Spring's defaults in place, after JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder){
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder){
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+}
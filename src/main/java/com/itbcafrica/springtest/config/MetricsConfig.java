@@ -0,0 +1,27 @@
+package com.itbcafrica.springtest.config;
+
+import com.itbcafrica.springtest.metrics.StatementCounter;
+import com.itbcafrica.springtest.metrics.StatementsPerRequestFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig{
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer(){
+        return hibernateProperties->hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR,new StatementCounter());
+    }
+
+    @Bean
+    public FilterRegistrationBean<StatementsPerRequestFilter> statementsPerRequestFilter(MeterRegistry meterRegistry){
+        FilterRegistrationBean<StatementsPerRequestFilter> registration=new FilterRegistrationBean<>(new StatementsPerRequestFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.itbcafrica.springtest.config;
+
+import com.itbcafrica.springtest.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// replaces the single auto-configured pool once app.datasource.replica.urls lists at least one read replica,
+// see application.properties
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("app.datasource.replica.urls")
+public class RoutingDataSourceConfig{
+
+    static final String POOL_PREFIX="employees-";
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             @Value("${app.datasource.replica.urls}") List<String> replicaUrls,
+                                                             @Value("${app.datasource.replica.username:${spring.datasource.username:sa}}") String username,
+                                                             @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password,
+                                                             @Value("${app.datasource.replica.lag-query:#{null}}") String lagQuery,
+                                                             @Value("${app.datasource.replica.max-lag-seconds:5}") double maxLagSeconds){
+        HikariDataSource primary=dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Map<String,DataSource> replicas=new LinkedHashMap<>();
+        for(int i=0; i<replicaUrls.size(); i++){
+            String name="replica-"+i;
+            replicas.put(name, withMetrics(DataSourceBuilder.create().type(HikariDataSource.class).url(replicaUrls.get(i)).username(username).password(password).build(), name));
+        }
+        return new ReplicaRoutingDataSource(withMetrics(primary, ReplicaRoutingDataSource.PRIMARY), replicas, lagQuery, maxLagSeconds);
+    }
+
+    // hikaricp.* meters tagged pool=employees-primary, employees-replica-0, ...; registered on the global
+    // registry because the MeterRegistry bean itself depends on the DataSource (Boot adds its registries to it)
+    private static HikariDataSource withMetrics(HikariDataSource pool,String name){
+        pool.setPoolName(POOL_PREFIX+name);
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource){
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+}
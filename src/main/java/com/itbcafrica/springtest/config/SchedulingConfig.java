@@ -0,0 +1,10 @@
+package com.itbcafrica.springtest.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// drives the change feed relay and the replica checks
+@Configuration
+@EnableScheduling
+public class SchedulingConfig{
+}
@@ -0,0 +1,53 @@
+package com.itbcafrica.springtest.config;
+
+import com.itbcafrica.springtest.repository.ShardedEmployeeRepository;
+import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.impl.ShardedEmployeeServiceImpl;
+import com.itbcafrica.springtest.service.support.EmployeeSearchIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+// once app.sharding.urls lists the shard databases, employees are stored on them instead of spring.datasource,
+// see application.properties; the shard count is part of the id scheme and cannot change once data is written
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty("app.sharding.urls")
+public class ShardingConfig{
+
+    static final String POOL_PREFIX="employees-shard-";
+
+    @Bean(initMethod="createSchema",destroyMethod="shutdown")
+    public ShardedEmployeeRepository shardedEmployeeRepository(@Value("${app.sharding.urls}") List<String> shardUrls,
+                                                               @Value("${app.sharding.username:${spring.datasource.username:sa}}") String username,
+                                                               @Value("${app.sharding.password:${spring.datasource.password:}}") String password){
+        List<DataSource> shards=new ArrayList<>();
+        for(int i=0; i<shardUrls.size(); i++){
+            HikariDataSource pool=DataSourceBuilder.create().type(HikariDataSource.class).url(shardUrls.get(i)).username(username).password(password).build();
+            // hikaricp.* meters tagged pool=employees-shard-0, employees-shard-1, ...
+            pool.setPoolName(POOL_PREFIX+i);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(Metrics.globalRegistry));
+            shards.add(pool);
+        }
+        return new ShardedEmployeeRepository(shards);
+    }
+
+    @Bean
+    @Primary
+    public EmployeeService shardedEmployeeService(ShardedEmployeeRepository shardedEmployeeRepository,CacheManager cacheManager,EmployeeSearchIndex searchIndex){
+        return new ShardedEmployeeServiceImpl(shardedEmployeeRepository, cacheManager, searchIndex);
+    }
+
+}
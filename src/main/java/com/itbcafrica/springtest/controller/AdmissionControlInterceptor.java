@@ -0,0 +1,122 @@
+package com.itbcafrica.springtest.controller;
+
+import com.itbcafrica.springtest.service.support.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Admission control: one {@link AdaptiveConcurrencyLimiter} per handler method, created from the read
+ * budget for GET and HEAD and from the write budget otherwise, so a slow write path cannot take the
+ * read capacity with it. Requests over the limit wait briefly and are then shed with 503 and
+ * Retry-After before any work is done. Streaming handlers (server-sent events, NDJSON export) are
+ * long-lived by design and are not limited.
+ */
+public class AdmissionControlInterceptor implements HandlerInterceptor{
+
+    private static final String PERMIT_ATTRIBUTE=AdmissionControlInterceptor.class.getName()+".permit";
+
+    private final Supplier<AdaptiveConcurrencyLimiter> readLimiters;
+
+    private final Supplier<AdaptiveConcurrencyLimiter> writeLimiters;
+
+    private final Duration maxQueueWait;
+
+    private final String retryAfterSeconds;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<Method,AdaptiveConcurrencyLimiter> limiters=new ConcurrentHashMap<>();
+
+    public AdmissionControlInterceptor(Supplier<AdaptiveConcurrencyLimiter> readLimiters,Supplier<AdaptiveConcurrencyLimiter> writeLimiters,
+                                       Duration maxQueueWait,long retryAfterSeconds,MeterRegistry meterRegistry){
+        this.readLimiters=readLimiters;
+        this.writeLimiters=writeLimiters;
+        this.maxQueueWait=maxQueueWait;
+        this.retryAfterSeconds=String.valueOf(retryAfterSeconds);
+        this.meterRegistry=meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request,HttpServletResponse response,Object handler){
+        if(!(handler instanceof HandlerMethod) || isStreaming((HandlerMethod) handler)){
+            return true;
+        }
+        HandlerMethod handlerMethod=(HandlerMethod) handler;
+        boolean read=HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        AdaptiveConcurrencyLimiter limiter=limiters.computeIfAbsent(handlerMethod.getMethod(), method->register(handlerMethod, read));
+        if(!limiter.acquire(maxQueueWait)){
+            meterRegistry.counter("employee.api.shed", "endpoint", endpoint(handlerMethod)).increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, new Permit(limiter, System.nanoTime()));
+        return true;
+    }
+
+    // server errors and exceptions count as overload signals, client errors do not
+    @Override
+    public void afterCompletion(HttpServletRequest request,HttpServletResponse response,Object handler,Exception ex){
+        Object permit=request.getAttribute(PERMIT_ATTRIBUTE);
+        if(permit instanceof Permit){
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            ((Permit) permit).release(ex!=null || response.getStatus()>=500);
+        }
+    }
+
+    private AdaptiveConcurrencyLimiter register(HandlerMethod handlerMethod,boolean read){
+        AdaptiveConcurrencyLimiter limiter=read ? readLimiters.get() : writeLimiters.get();
+        String endpoint=endpoint(handlerMethod);
+        Gauge.builder("employee.api.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit).tag("endpoint", endpoint).register(meterRegistry);
+        Gauge.builder("employee.api.concurrency.in.flight", limiter, AdaptiveConcurrencyLimiter::getInFlight).tag("endpoint", endpoint).register(meterRegistry);
+        return limiter;
+    }
+
+    private static String endpoint(HandlerMethod handlerMethod){
+        return handlerMethod.getBeanType().getSimpleName()+"."+handlerMethod.getMethod().getName();
+    }
+
+    private static boolean isStreaming(HandlerMethod handlerMethod){
+        ResolvableType returnType=ResolvableType.forMethodParameter(handlerMethod.getReturnType());
+        if(ResponseEntity.class.equals(returnType.resolve())){
+            returnType=returnType.getGeneric(0);
+        }
+        Class<?> body=returnType.resolve(Object.class);
+        return ResponseBodyEmitter.class.isAssignableFrom(body) || StreamingResponseBody.class.isAssignableFrom(body);
+    }
+
+    private static final class Permit{
+
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        private final long startNanos;
+
+        private Permit(AdaptiveConcurrencyLimiter limiter,long startNanos){
+            this.limiter=limiter;
+            this.startNanos=startNanos;
+        }
+
+        private void release(boolean failed){
+            limiter.release(System.nanoTime()-startNanos, failed);
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.itbcafrica.springtest.controller;
+
+import com.itbcafrica.springtest.exception.InvalidRequestException;
+import com.itbcafrica.springtest.model.Employee;
+
+/**
+ * Strong entity tags derived from the employee version column.
+ */
+final class ETags{
+
+    private static final String ANY="*";
+
+    private ETags(){
+    }
+
+    static String of(Employee employee){
+        return of(employee.getVersion());
+    }
+
+    static String of(Long version){
+        return "\""+version+"\"";
+    }
+
+    // tag of the version a PATCH guarded by If-Match leaves behind, known without reading the row again:
+    // the update bumps the version by one and a patch without fields changes nothing
+    static String afterPatch(Long expectedVersion,Employee patch){
+        boolean empty=patch.getFirstName()==null && patch.getLastName()==null && patch.getEmail()==null;
+        return of(empty ? expectedVersion : expectedVersion+1);
+    }
+
+    // If-None-Match uses the weak comparison: W/"1" matches "1"
+    static boolean noneMatchFails(String ifNoneMatch,String etag){
+        if(ifNoneMatch==null){
+            return false;
+        }
+        for(String candidate: ifNoneMatch.split(",")){
+            String tag=candidate.trim();
+            if(tag.equals(ANY) || tag.equals(etag) || tag.equals("W/"+etag)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // If-Match uses the strong comparison, returns null when absent or "*" (any current version). A value that is
+    // not one of our tags is a bad request (400), 412 is kept for a version that no longer matches
+    static Long expectedVersion(String ifMatch){
+        if(ifMatch==null || ifMatch.trim().equals(ANY)){
+            return null;
+        }
+        String tag=ifMatch.trim();
+        if(tag.length()<3 || !tag.startsWith("\"") || !tag.endsWith("\"")){
+            throw new InvalidRequestException("If-Match must be a single strong entity tag: "+ifMatch);
+        }
+        try{
+            return Long.valueOf(tag.substring(1,tag.length()-1));
+        }catch(NumberFormatException e){
+            throw new InvalidRequestException("Unknown entity tag: "+ifMatch);
+        }
+    }
+
+}
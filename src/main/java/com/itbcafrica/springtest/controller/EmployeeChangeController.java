@@ -0,0 +1,31 @@
+package com.itbcafrica.springtest.controller;
+
+import com.itbcafrica.springtest.service.EmployeeChangeFeed;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// the outbox is written by the JPA service only, so there is no feed once employees live on shards
+@Profile("!reactive")
+@ConditionalOnExpression("'${app.sharding.urls:}'.isEmpty()")
+@RestController
+@RequestMapping("/api/employees/changes")
+public class EmployeeChangeController{
+
+    EmployeeChangeFeed employeeChangeFeed;
+
+    public EmployeeChangeController(EmployeeChangeFeed employeeChangeFeed){
+        this.employeeChangeFeed=employeeChangeFeed;
+    }
+
+    // GET /api/employees/changes?since=<offset> streams created/updated/deleted events after that offset;
+    // browsers reconnecting send the last event id in Last-Event-ID instead. 410 Gone when changes after that offset
+    // have been purged, the client then reloads the employees and subscribes without an offset
+    @GetMapping(produces=MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(value="since",required=false) Long since,@RequestHeader(value="Last-Event-ID",required=false) Long lastEventId){
+        return employeeChangeFeed.subscribe(since!=null ? since : lastEventId);
+    }
+
+}
@@ -1,59 +1,293 @@
 package com.itbcafrica.springtest.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCreateStatus;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeImportReport;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.service.EmployeeImportService;
 import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.EmployeeWriteBehindService;
+import com.itbcafrica.springtest.service.support.IdempotencyStore;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
+@Profile("!reactive")
 @RestController
 @RequestMapping("/api/employees")
 public class EmployeeController{
 
+    static final String APPLICATION_NDJSON_VALUE="application/x-ndjson";
+
+    static final String IDEMPOTENCY_KEY="Idempotency-Key";
+
+    static final String RETRY_AFTER_SECONDS="1";
+
     EmployeeService employeeService;
 
-    public EmployeeController(EmployeeService employeeService){
+    EmployeeImportService employeeImportService;
+
+    EmployeeWriteBehindService writeBehindService;
+
+    IdempotencyStore idempotencyStore;
+
+    ObjectWriter summaryWriter;
+
+    // one filter provider per distinct ?fields= selection, bounded by the subsets of EmployeeSummary.FIELDS
+    private final Map<Set<String>,FilterProvider> fieldFilters=new ConcurrentHashMap<>();
+
+    public EmployeeController(EmployeeService employeeService,EmployeeImportService employeeImportService,EmployeeWriteBehindService writeBehindService,IdempotencyStore idempotencyStore,ObjectMapper objectMapper){
         this.employeeService=employeeService;
+        this.employeeImportService=employeeImportService;
+        this.writeBehindService=writeBehindService;
+        this.idempotencyStore=idempotencyStore;
+        this.summaryWriter=objectMapper.writerFor(EmployeeSummary.class);
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public Employee createEmployee( @RequestBody Employee employee){
-        return employeeService.saveEmployee(employee);
+    public Employee createEmployee(@RequestHeader(value=IDEMPOTENCY_KEY,required=false) String idempotencyKey, @RequestBody Employee employee){
+        // identity and version are assigned by the database
+        employee.setId(null);
+        employee.setVersion(null);
+        if(idempotencyKey==null){
+            return employeeService.saveEmployee(employee);
+        }
+        // a retried create with the same key replays the first response without touching the database
+        List<String> fingerprint=Arrays.asList(employee.getFirstName(),employee.getLastName(),employee.getEmail());
+        return idempotencyStore.execute(idempotencyKey, fingerprint, ()->employeeService.saveEmployee(employee));
+    }
+
+    // a Prefer header listing respond-async queues the create and answers 202 right away, the Location header points
+    // to the status of the queued create; any other preference gets the plain create above. With an Idempotency-Key
+    // a retry replays the first 202 and its ticket instead of queueing the employee again, a 503 is not remembered
+    @PostMapping(headers=Preferences.PREFER)
+    public ResponseEntity<Object> createEmployee(@RequestHeader(value=IDEMPOTENCY_KEY,required=false) String idempotencyKey, @RequestHeader(Preferences.PREFER) String prefer, @RequestBody Employee employee){
+        if(!Preferences.respondAsync(prefer)){
+            return ResponseEntity.status(HttpStatus.CREATED).body(createEmployee(idempotencyKey,employee));
+        }
+        // identity and version are assigned by the database
+        employee.setId(null);
+        employee.setVersion(null);
+        Optional<EmployeeCreateStatus> submitted;
+        if(idempotencyKey==null){
+            submitted=writeBehindService.submit(employee);
+        }else{
+            // the key cannot be reused for a synchronous create of the same employee, whose stored result is an Employee
+            List<String> fingerprint=Arrays.asList(employee.getFirstName(),employee.getLastName(),employee.getEmail(),Preferences.RESPOND_ASYNC);
+            submitted=idempotencyStore.executeIfPresent(idempotencyKey, fingerprint, ()->writeBehindService.submit(employee));
+        }
+        return submitted
+                .<ResponseEntity<Object>>map(status->ResponseEntity.accepted()
+                        .header(Preferences.PREFERENCE_APPLIED,Preferences.RESPOND_ASYNC)
+                        .location(URI.create("/api/employees/pending/"+status.getTicket()))
+                        .body(status))
+                .orElseGet(()->ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER,RETRY_AFTER_SECONDS).build());
     }
 
+    @GetMapping("pending/{ticket}")
+    public ResponseEntity<EmployeeCreateStatus> getCreateStatus(@PathVariable("ticket") String ticket){
+        return writeBehindService.getStatus(ticket)
+                .map(ResponseEntity::ok)
+                .orElseGet(()->ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public List<Employee> createEmployees(@RequestBody List<Employee> employees){
+        // identity and version are assigned by the database, a client id would turn the insert into a merge over that row
+        employees.forEach(employee->{
+            employee.setId(null);
+            employee.setVersion(null);
+        });
+        return employeeService.saveEmployees(employees);
+    }
+
+    // bulk import: the request body is a UTF-8 CSV file with a firstName,lastName,email header, read as it arrives
+    @PostMapping(value="import",consumes={"text/csv",MediaType.TEXT_PLAIN_VALUE})
+    public EmployeeImportReport importEmployees(InputStream csv) throws IOException{
+        return employeeImportService.importEmployees(new InputStreamReader(csv,StandardCharsets.UTF_8));
+    }
+
+    // list endpoints accept ?fields=id,email to serialize only the listed properties of each employee
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
-    public List<Employee>getAllEmployees(){
-        return  employeeService.getAllEmployees();
+    public MappingJacksonValue getAllEmployees(@RequestParam(value="fields",required=false) Set<String> fields){
+        return  withFields(employeeService.getAllEmployees(),fields);
+    }
+
+    // keyset pagination: GET /api/employees?limit=50[&after=<nextCursor of the previous page>]
+    @GetMapping(params="limit")
+    public MappingJacksonValue getEmployeesAfter(@RequestParam(value="after",required=false) Long after,@RequestParam("limit") int limit,@RequestParam(value="fields",required=false) Set<String> fields){
+        return withFields(employeeService.getEmployeesAfter(after,limit),fields);
+    }
+
+    // offset pagination, kept as a fallback for clients that need random page access
+    @GetMapping(params={"page","!limit"})
+    public MappingJacksonValue getEmployeesPage(@RequestParam("page") int page,@RequestParam(value="size",defaultValue="50") int size,@RequestParam(value="fields",required=false) Set<String> fields){
+        return withFields(employeeService.getEmployeesPage(page,size),fields);
+    }
+
+    // streams every employee as newline-delimited JSON, one row at a time; the stream is written on an async thread
+    // and stopped after spring.mvc.async.request-timeout, see application.properties
+    @GetMapping(value="export",produces=APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(value="fields",required=false) Set<String> fields){
+        FilterProvider filters=fieldFilter(fields);
+        ObjectWriter writer=filters!=null ? summaryWriter.with(filters) : summaryWriter;
+        StreamingResponseBody body=outputStream->{
+            employeeService.exportEmployees(employee->{
+                try{
+                    outputStream.write(writer.writeValueAsBytes(employee));
+                    outputStream.write('\n');
+                }catch(IOException e){
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE)).body(body);
     }
 
+    // type-ahead: GET /api/employees/search?q=rap%20bou matches names and emails with words starting with every term
+    @GetMapping("search")
+    public List<EmployeeSummary> searchEmployees(@RequestParam("q") String query,@RequestParam(value="limit",defaultValue="10") int limit){
+        return employeeService.searchEmployees(query,limit);
+    }
+
+    @GetMapping(params="email")
+    public ResponseEntity<Employee> getEmployeeByEmail(@RequestParam("email") String email){
+        return  employeeService.getEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .orElseGet(()->ResponseEntity.notFound().build());
+    }
+
+    // GET /api/employees?ids=1,2,3 resolves many employees in one round trip
+    @GetMapping(params="ids")
+    public EmployeeLookupResult getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds){
+        return employeeService.getEmployeesByIds(employeeIds);
+    }
+
+    // same as above for id lists too long for a query string
+    @PostMapping("lookup")
+    public EmployeeLookupResult lookupEmployees(@RequestBody List<Long> employeeIds){
+        return employeeService.getEmployeesByIds(employeeIds);
+    }
+
+    // answers If-None-Match with 304 and no body when the client already has the current version
     @GetMapping("{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId){
+    public ResponseEntity<Employee> getEmployeeById(@PathVariable("id") Long employeeId, @RequestHeader(value=HttpHeaders.IF_NONE_MATCH,required=false) String ifNoneMatch){
         return  employeeService.getEmployeeById(employeeId)
-                .map(ResponseEntity::ok)
+                .map(employee->{
+                    if(employee.getVersion()!=null && ETags.noneMatchFails(ifNoneMatch,ETags.of(employee))){
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(employee)).<Employee>build();
+                    }
+                    return withETag(ResponseEntity.ok(),employee);
+                })
                 .orElseGet(()->ResponseEntity.notFound().build());
     }
 
     @PutMapping("{id}")
-    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee){
+    public ResponseEntity<Employee> updateEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
         return  employeeService.getEmployeeById(employeeId)
                 .map(savedEmployee->{
-                    savedEmployee.setFirstName(employee.getFirstName());
-                    savedEmployee.setEmail(employee.getEmail());
-                    savedEmployee.setLastName(employee.getLastName());
-                 Employee updateEmployee=   employeeService.updateEmployee(savedEmployee);
-                    return  new ResponseEntity<>(updateEmployee,HttpStatus.OK);
+                    if(expectedVersion!=null && !expectedVersion.equals(savedEmployee.getVersion())){
+                        throw new PreconditionFailedException("Employee "+employeeId+" is no longer at version "+expectedVersion);
+                    }
+                    // the saved employee may be the cached instance shared with concurrent readers, so it is never modified
+                    employee.setId(savedEmployee.getId());
+                    employee.setVersion(savedEmployee.getVersion());
+                 Employee updateEmployee=   employeeService.updateEmployee(employee);
+                    return  withETag(ResponseEntity.ok(),updateEmployee);
                 })
                 .orElseGet(()->ResponseEntity.notFound().build());
     }
 
+    // applies only the fields present in the body with a single UPDATE, without loading the employee.
+    // With If-Match the ETag of the new version is known and returned, so the client can send its next
+    // If-Match without a GET; without it no ETag is sent, finding the version would take another query
+    @PatchMapping("{id}")
+    public ResponseEntity<Void> patchEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
+        if(!employeeService.patchEmployee(employeeId,employee,expectedVersion)){
+            return ResponseEntity.notFound().build();
+        }
+        return expectedVersion!=null ? ResponseEntity.noContent().eTag(ETags.afterPatch(expectedVersion,employee)).build() : ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("{id}")
-    public  ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId){
-        employeeService.deleteEmployee(employeeId);
+    public  ResponseEntity<String> deleteEmployee(@PathVariable("id") long employeeId, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
+        boolean deleted=expectedVersion!=null ? employeeService.deleteEmployee(employeeId,expectedVersion) : employeeService.deleteEmployee(employeeId);
+        if(!deleted){
+            return ResponseEntity.notFound().build();
+        }
         return  new ResponseEntity<String>("Employee deleted successfully.",HttpStatus.OK);
     }
 
+    // DELETE /api/employees?ids=1,2,3 deletes the listed employees in set-based statements
+    @DeleteMapping(params="ids")
+    public Map<String,Integer> deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+        return Map.of("deleted",employeeService.deleteEmployees(employeeIds));
+    }
+
+    // DELETE /api/employees?emailDomain=example.com deletes everyone with an email in that domain in one statement
+    @DeleteMapping(params="emailDomain")
+    public Map<String,Integer> deleteEmployeesByEmailDomain(@RequestParam("emailDomain") String emailDomain){
+        return Map.of("deleted",employeeService.deleteEmployeesByEmailDomain(emailDomain));
+    }
+
+    private MappingJacksonValue withFields(Object body,Set<String> fields){
+        MappingJacksonValue value=new MappingJacksonValue(body);
+        value.setFilters(fieldFilter(fields));
+        return value;
+    }
+
+    // unknown names are ignored, no known name at all means no filtering
+    private FilterProvider fieldFilter(Set<String> fields){
+        if(fields==null){
+            return null;
+        }
+        Set<String> selected=new TreeSet<>(fields);
+        selected.retainAll(EmployeeSummary.FIELDS);
+        if(selected.isEmpty()){
+            return null;
+        }
+        return fieldFilters.computeIfAbsent(selected, names->new SimpleFilterProvider().addFilter(EmployeeSummary.FIELDS_FILTER,SimpleBeanPropertyFilter.filterOutAllExcept(names)));
+    }
+
+    private static ResponseEntity<Employee> withETag(ResponseEntity.BodyBuilder response,Employee employee){
+        if(employee.getVersion()!=null){
+            response.eTag(ETags.of(employee));
+        }
+        return response.body(employee);
+    }
+
 }
@@ -0,0 +1,32 @@
+package com.itbcafrica.springtest.controller;
+
+/**
+ * Parsing of the Prefer request header (RFC 7240).
+ */
+final class Preferences{
+
+    static final String PREFER="Prefer";
+
+    static final String PREFERENCE_APPLIED="Preference-Applied";
+
+    static final String RESPOND_ASYNC="respond-async";
+
+    private Preferences(){
+    }
+
+    // "Prefer: respond-async, wait=5" and "Prefer: wait=5; foo, Respond-Async" both ask for an asynchronous response,
+    // preference names are case-insensitive and their values and parameters do not matter here
+    static boolean respondAsync(String prefer){
+        if(prefer==null){
+            return false;
+        }
+        for(String preference: prefer.split(",")){
+            String name=preference.split("[=;]",2)[0].trim();
+            if(name.equalsIgnoreCase(RESPOND_ASYNC)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
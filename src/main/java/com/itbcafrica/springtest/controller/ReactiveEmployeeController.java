@@ -0,0 +1,153 @@
+package com.itbcafrica.springtest.controller;
+
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.service.ReactiveEmployeeService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// non-blocking counterpart of EmployeeController, replaces it when the "reactive" profile is active.
+// Not mirrored: ?fields= selection, search, CSV import, Idempotency-Key and the write-behind and change feed endpoints
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/employees")
+public class ReactiveEmployeeController{
+
+    ReactiveEmployeeService employeeService;
+
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService){
+        this.employeeService=employeeService;
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Employee> createEmployee( @RequestBody Employee employee){
+        return employeeService.saveEmployee(employee);
+    }
+
+    @PostMapping("batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public Flux<Employee> createEmployees(@RequestBody List<Employee> employees){
+        return employeeService.saveEmployees(employees);
+    }
+
+    // with Accept: application/x-ndjson rows are streamed one by one, driven by the client's demand
+    @GetMapping(produces={MediaType.APPLICATION_JSON_VALUE,MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Employee> getAllEmployees(){
+        return  employeeService.getAllEmployees();
+    }
+
+    @GetMapping(value="export",produces=MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Employee> exportEmployees(){
+        return employeeService.getAllEmployees();
+    }
+
+    @GetMapping(params="limit")
+    public Mono<EmployeeCursorPage> getEmployeesAfter(@RequestParam(value="after",required=false) Long after,@RequestParam("limit") int limit){
+        return employeeService.getEmployeesAfter(after,limit);
+    }
+
+    @GetMapping(params={"page","!limit"})
+    public Mono<Page<EmployeeSummary>> getEmployeesPage(@RequestParam("page") int page,@RequestParam(value="size",defaultValue="50") int size){
+        return employeeService.getEmployeesPage(page,size);
+    }
+
+    @GetMapping(params="email")
+    public Mono<ResponseEntity<Employee>> getEmployeeByEmail(@RequestParam("email") String email){
+        return  employeeService.getEmployeeByEmail(email)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(params="ids")
+    public Mono<EmployeeLookupResult> getEmployeesByIds(@RequestParam("ids") List<Long> employeeIds){
+        return employeeService.getEmployeesByIds(employeeIds);
+    }
+
+    @PostMapping("lookup")
+    public Mono<EmployeeLookupResult> lookupEmployees(@RequestBody List<Long> employeeIds){
+        return employeeService.getEmployeesByIds(employeeIds);
+    }
+
+    // same entity tags as EmployeeController: If-None-Match answers 304, If-Match guards PUT, PATCH and DELETE
+    @GetMapping("{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable("id") Long employeeId, @RequestHeader(value=HttpHeaders.IF_NONE_MATCH,required=false) String ifNoneMatch){
+        return  employeeService.getEmployeeById(employeeId)
+                .map(employee->{
+                    if(employee.getVersion()!=null && ETags.noneMatchFails(ifNoneMatch,ETags.of(employee))){
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(employee)).<Employee>build();
+                    }
+                    return withETag(ResponseEntity.ok(),employee);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PutMapping("{id}")
+    public Mono<ResponseEntity<Employee>> updateEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
+        return  employeeService.getEmployeeById(employeeId)
+                .flatMap(savedEmployee->{
+                    if(expectedVersion!=null && !expectedVersion.equals(savedEmployee.getVersion())){
+                        return Mono.error(new PreconditionFailedException("Employee "+employeeId+" is no longer at version "+expectedVersion));
+                    }
+                    savedEmployee.setFirstName(employee.getFirstName());
+                    savedEmployee.setEmail(employee.getEmail());
+                    savedEmployee.setLastName(employee.getLastName());
+                    return employeeService.updateEmployee(savedEmployee);
+                })
+                .map(updatedEmployee->withETag(ResponseEntity.ok(),updatedEmployee))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // applies only the fields present in the body with a single UPDATE, without loading the employee;
+    // the ETag of the new version comes back when If-Match was sent, as in EmployeeController
+    @PatchMapping("{id}")
+    public Mono<ResponseEntity<Void>> patchEmployee(@PathVariable("id") Long employeeId, @RequestBody Employee employee, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
+        return employeeService.patchEmployee(employeeId,employee,expectedVersion)
+                .map(patched->{
+                    if(!patched){
+                        return ResponseEntity.notFound().<Void>build();
+                    }
+                    return expectedVersion!=null ? ResponseEntity.noContent().eTag(ETags.afterPatch(expectedVersion,employee)).<Void>build() : ResponseEntity.noContent().<Void>build();
+                });
+    }
+
+    @DeleteMapping("{id}")
+    public  Mono<ResponseEntity<String>> deleteEmployee(@PathVariable("id") long employeeId, @RequestHeader(value=HttpHeaders.IF_MATCH,required=false) String ifMatch){
+        Long expectedVersion=ETags.expectedVersion(ifMatch);
+        Mono<Boolean> deleted=expectedVersion!=null ? employeeService.deleteEmployee(employeeId,expectedVersion) : employeeService.deleteEmployee(employeeId);
+        return deleted.map(found->found ? new ResponseEntity<>("Employee deleted successfully.",HttpStatus.OK) : ResponseEntity.notFound().<String>build());
+    }
+
+    @DeleteMapping(params="ids")
+    public Mono<Map<String,Integer>> deleteEmployees(@RequestParam("ids") List<Long> employeeIds){
+        return employeeService.deleteEmployees(employeeIds).map(deleted->Map.of("deleted",deleted));
+    }
+
+    @DeleteMapping(params="emailDomain")
+    public Mono<Map<String,Integer>> deleteEmployeesByEmailDomain(@RequestParam("emailDomain") String emailDomain){
+        return employeeService.deleteEmployeesByEmailDomain(emailDomain).map(deleted->Map.of("deleted",deleted));
+    }
+
+    private static ResponseEntity<Employee> withETag(ResponseEntity.BodyBuilder response,Employee employee){
+        if(employee.getVersion()!=null){
+            response.eTag(ETags.of(employee));
+        }
+        return response.body(employee);
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.itbcafrica.springtest.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// connections of read-only transactions go round robin to the healthy replicas, everything else to the primary.
+// must sit behind a LazyConnectionDataSourceProxy: the read-only flag is only known once the transaction has started.
+// Owns the pools it routes to and closes them when the context is closed
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean{
+
+    public static final String PRIMARY="primary";
+
+    private static final Logger log=LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final Map<String,DataSource> replicas;
+
+    // query returning the replication lag in seconds, null to only check that the replica answers
+    private final String lagQuery;
+
+    private final double maxLagSeconds;
+
+    private volatile List<String> availableReplicas;
+
+    private final AtomicInteger nextReplica=new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary,Map<String,DataSource> replicas,String lagQuery,double maxLagSeconds){
+        this.primary=primary;
+        this.replicas=new LinkedHashMap<>(replicas);
+        this.lagQuery=lagQuery;
+        this.maxLagSeconds=maxLagSeconds;
+        this.availableReplicas=List.copyOf(replicas.keySet());
+        Map<Object,Object> targets=new HashMap<>(replicas);
+        targets.put(PRIMARY,primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey(){
+        if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()){
+            return PRIMARY;
+        }
+        List<String> available=availableReplicas;
+        if(available.isEmpty()){
+            return PRIMARY;
+        }
+        return available.get(Math.floorMod(nextReplica.getAndIncrement(), available.size()));
+    }
+
+    @Override
+    public void destroy(){
+        availableReplicas=List.of();
+        List<DataSource> pools=new ArrayList<>(replicas.values());
+        pools.add(primary);
+        for(DataSource pool: pools){
+            if(pool instanceof AutoCloseable){
+                try{
+                    ((AutoCloseable) pool).close();
+                }catch(Exception e){
+                    log.warn("Could not close data source {}", pool, e);
+                }
+            }
+        }
+    }
+
+    public List<String> getAvailableReplicas(){
+        return availableReplicas;
+    }
+
+    // a replica that does not answer or lags more than maxLagSeconds gets no reads until a later check passes
+    @Scheduled(fixedDelayString="${app.datasource.replica.check-interval-ms:5000}",initialDelayString="${app.datasource.replica.check-initial-delay-ms:0}")
+    public void checkReplicas(){
+        List<String> available=new ArrayList<>(replicas.size());
+        for(Map.Entry<String,DataSource> replica: replicas.entrySet()){
+            if(isUsable(replica.getValue())){
+                available.add(replica.getKey());
+            }else if(availableReplicas.contains(replica.getKey())){
+                log.warn("Replica {} is unreachable or lagging, routing its reads to the primary", replica.getKey());
+            }
+        }
+        availableReplicas=List.copyOf(available);
+    }
+
+    private boolean isUsable(DataSource replica){
+        try(Connection connection=replica.getConnection()){
+            if(lagQuery==null){
+                return connection.isValid(1);
+            }
+            try(Statement statement=connection.createStatement();ResultSet resultSet=statement.executeQuery(lagQuery)){
+                // no row or NULL means the replica has not replayed anything yet
+                return resultSet.next() && resultSet.getObject(1)!=null && resultSet.getDouble(1)<=maxLagSeconds;
+            }
+        }catch(SQLException e){
+            return false;
+        }
+    }
+
+}
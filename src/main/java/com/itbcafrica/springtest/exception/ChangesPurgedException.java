@@ -0,0 +1,12 @@
+package com.itbcafrica.springtest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class ChangesPurgedException extends RuntimeException{
+    public ChangesPurgedException(String message){
+        super(message);
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.itbcafrica.springtest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PreconditionFailedException extends RuntimeException{
+    public PreconditionFailedException(String message){
+        super(message);
+    }
+
+    public PreconditionFailedException( String message,Throwable cause){
+        super(message,cause);
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.itbcafrica.springtest.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// thrown on every duplicate create or retried insert: no stack trace is captured, and the constraint violation
+// it replaces is not kept as the cause, so its Hibernate and JDBC chain is not held or logged
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ResourceAlreadyExistsException extends RuntimeException{
+    public ResourceAlreadyExistsException(String message){
+        super(message, null, false, false);
+    }
+
+}
@@ -1,12 +0,0 @@
-package com.itbcafrica.springtest.exception;
-
-public class ResourceNotFoundException extends RuntimeException{
-    public ResourceNotFoundException(String message){
-        super(message);
-    }
-
-    public ResourceNotFoundException( String message,Throwable cause){
-        super(message,cause);
-    }
-
-}
@@ -0,0 +1,29 @@
+package com.itbcafrica.springtest.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread, read and reset by
+ * {@link StatementsPerRequestFilter} around each HTTP request. Statements made on other threads
+ * (async request processing, the write-behind flusher, the change feed relay) are not attributed
+ * to any request.
+ */
+public class StatementCounter implements StatementInspector{
+
+    private static final ThreadLocal<int[]> COUNT=ThreadLocal.withInitial(()->new int[1]);
+
+    @Override
+    public String inspect(String sql){
+        COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset(){
+        COUNT.get()[0]=0;
+    }
+
+    public static int current(){
+        return COUNT.get()[0];
+    }
+
+}
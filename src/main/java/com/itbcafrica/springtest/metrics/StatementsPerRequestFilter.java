@@ -0,0 +1,50 @@
+package com.itbcafrica.springtest.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request issued, tagged like http.server.requests
+ * so that N+1 patterns show up per endpoint. {@link StatementCounter} counts per thread, so only
+ * requests that do all their work on the request thread are recorded: async requests (the NDJSON
+ * export, the change feed) and 202 Accepted responses, whose inserts the write-behind flusher makes
+ * later, are left out rather than recorded with the few statements of their request thread.
+ */
+public class StatementsPerRequestFilter extends OncePerRequestFilter{
+
+    public static final String METRIC_NAME="hibernate.statements.per.request";
+
+    private final MeterRegistry meterRegistry;
+
+    public StatementsPerRequestFilter(MeterRegistry meterRegistry){
+        this.meterRegistry=meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,HttpServletResponse response,FilterChain filterChain) throws ServletException, IOException{
+        StatementCounter.reset();
+        try{
+            filterChain.doFilter(request,response);
+        }finally{
+            if(!request.isAsyncStarted() && response.getStatus()!=HttpServletResponse.SC_ACCEPTED){
+                Object uri=request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                DistributionSummary.builder(METRIC_NAME)
+                        .description("SQL statements issued while handling a request")
+                        .tag("method",request.getMethod())
+                        .tag("uri",uri!=null ? uri.toString() : "UNKNOWN")
+                        .publishPercentiles(0.5,0.99)
+                        .register(meterRegistry)
+                        .record(StatementCounter.current());
+            }
+        }
+    }
+
+}
@@ -10,11 +10,19 @@ import javax.persistence.*;
 @NoArgsConstructor
 @Builder
 @Entity
-@Table(name="employees")
+@Table(name="employees",indexes={
+        @Index(name=Employee.EMAIL_UNIQUE_INDEX,columnList="email",unique=true),
+        @Index(name=Employee.NAME_INDEX,columnList="last_name,first_name")})
 public class Employee{
 
+    public static final String EMAIL_UNIQUE_INDEX="ux_employees_email";
+
+    // serves the name lookups of EmployeeRepository, last name first as it is the more selective column
+    public static final String NAME_INDEX="ix_employees_last_name_first_name";
+
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy=GenerationType.SEQUENCE,generator="employees_seq")
+    @SequenceGenerator(name="employees_seq",sequenceName="employees_seq",allocationSize=50)
     private Long id;
 
     @Column(name="first_name",nullable=false)
@@ -24,4 +32,8 @@ public class Employee{
     @Column(nullable=false)
     private  String email;
 
+    // optimistic locking, also exposed as the ETag of the employee resource
+    @Version
+    private Long version;
+
 }
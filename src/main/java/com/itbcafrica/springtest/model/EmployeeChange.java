@@ -0,0 +1,65 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+// outbox row written in the transaction of every employee mutation, published by the change feed relay
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name="employee_changes",indexes={
+        @Index(name="ux_employee_changes_offset",columnList="change_offset",unique=true),
+        @Index(name="ix_employee_changes_unpublished",columnList="change_offset,change_sequence"),
+        @Index(name="ix_employee_changes_created_at",columnList="created_at")})
+public class EmployeeChange{
+
+    public enum Type{CREATED,UPDATED,DELETED}
+
+    @Id
+    @GeneratedValue(strategy=GenerationType.SEQUENCE,generator="employee_changes_seq")
+    @SequenceGenerator(name="employee_changes_seq",sequenceName="employee_changes_seq",allocationSize=50)
+    private Long id;
+
+    // assigned by the database when the row is inserted, whichever path inserts it; the relay publishes in this order.
+    // The id cannot serve: Hibernate hands out pooled blocks per instance while the native inserts take fresh values.
+    // Every change row is inserted while the transaction holds the lock on the employee row, so the changes of one
+    // employee get increasing values in the order they commit
+    @Column(name="change_sequence",insertable=false,updatable=false,columnDefinition="bigint generated by default as identity")
+    private Long sequence;
+
+    // position in the feed, assigned by the relay in publication order; null until published
+    @Column(name="change_offset")
+    private Long offset;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name="change_type",nullable=false,length=16)
+    private Type type;
+
+    @Column(name="employee_id",nullable=false)
+    private Long employeeId;
+
+    // state of the employee after the change, null for deletions
+    @Column(name="first_name")
+    private String firstName;
+    @Column(name="last_name")
+    private String lastName;
+    private String email;
+    private Long version;
+
+    @Column(name="created_at",nullable=false)
+    private Instant createdAt;
+
+    public static EmployeeChange of(Type type,Employee employee){
+        return new EmployeeChange(null,null,null,type,employee.getId(),employee.getFirstName(),employee.getLastName(),employee.getEmail(),employee.getVersion(),Instant.now());
+    }
+
+    public static EmployeeChange deleted(Long employeeId){
+        return new EmployeeChange(null,null,null,Type.DELETED,employeeId,null,null,null,null,Instant.now());
+    }
+
+}
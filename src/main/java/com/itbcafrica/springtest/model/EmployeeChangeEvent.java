@@ -0,0 +1,32 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+import java.time.Instant;
+
+// payload of one server-sent event of GET /api/employees/changes
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class EmployeeChangeEvent{
+
+    // pass as ?since= (or Last-Event-ID) to resume after this event
+    private long offset;
+
+    private EmployeeChange.Type type;
+
+    private Long employeeId;
+
+    // null for deletions
+    private EmployeeSummary employee;
+
+    private Instant occurredAt;
+
+    public static EmployeeChangeEvent of(EmployeeChange change){
+        EmployeeSummary employee=change.getType()==EmployeeChange.Type.DELETED ? null
+                : new EmployeeSummary(change.getEmployeeId(),change.getFirstName(),change.getLastName(),change.getEmail(),change.getVersion());
+        return new EmployeeChangeEvent(change.getOffset(),change.getType(),change.getEmployeeId(),employee,change.getCreatedAt());
+    }
+
+}
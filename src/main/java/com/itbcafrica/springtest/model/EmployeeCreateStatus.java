@@ -0,0 +1,27 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class EmployeeCreateStatus{
+
+    public enum State{PENDING, CREATED, FAILED}
+
+    private String ticket;
+
+    private State state;
+
+    // set once the employee is CREATED
+    private Long employeeId;
+
+    // reason of a FAILED create
+    private String message;
+
+    public static EmployeeCreateStatus pending(String ticket){
+        return new EmployeeCreateStatus(ticket, State.PENDING, null, null);
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeCursorPage{
+
+    private List<EmployeeSummary> content;
+
+    // id to pass as "after" to fetch the next page, null when this is the last page
+    private Long nextCursor;
+
+    private int limit;
+
+}
@@ -0,0 +1,18 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class EmployeeImportError{
+
+    // record number in the file, the header being row 1
+    private long row;
+
+    private String email;
+
+    private String message;
+
+}
@@ -0,0 +1,23 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeImportReport{
+
+    // data rows read from the file, the header excluded
+    private long rowsRead;
+
+    private long imported;
+
+    private long failed;
+
+    // the first rejected rows, at most EmployeeImportServiceImpl.MAX_REPORTED_ERRORS of them
+    private List<EmployeeImportError> errors;
+
+}
@@ -0,0 +1,18 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class EmployeeLookupResult{
+
+    // found employees, in the order their ids were requested
+    private List<Employee> employees;
+
+    private List<Long> missingIds;
+
+}
@@ -0,0 +1,43 @@
+package com.itbcafrica.springtest.model;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+// R2DBC mapping of the employees table, the reactive counterpart of the Employee JPA entity
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Table("employees")
+public class EmployeeRow{
+
+    @Id
+    private Long id;
+
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    @Column("email")
+    private String email;
+
+    @Version
+    private Long version;
+
+    public static EmployeeRow from(Employee employee){
+        return new EmployeeRow(employee.getId(),employee.getFirstName(),employee.getLastName(),employee.getEmail(),employee.getVersion());
+    }
+
+    public Employee toEmployee(){
+        return new Employee(id,firstName,lastName,email,version);
+    }
+
+    public EmployeeSummary toSummary(){
+        return new EmployeeSummary(id,firstName,lastName,email,version);
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.itbcafrica.springtest.model;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import lombok.*;
+
+import java.util.Set;
+
+// read-only view of an employee for list responses, built straight from query results so it is
+// never attached to a persistence context
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@EqualsAndHashCode
+@ToString
+@JsonFilter(EmployeeSummary.FIELDS_FILTER)
+public class EmployeeSummary{
+
+    // id of the Jackson filter applied for ?fields= selection
+    public static final String FIELDS_FILTER="employeeFields";
+
+    public static final Set<String> FIELDS=Set.of("id","firstName","lastName","email","version");
+
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    private Long version;
+
+    public static EmployeeSummary of(Employee employee){
+        return new EmployeeSummary(employee.getId(),employee.getFirstName(),employee.getLastName(),employee.getEmail(),employee.getVersion());
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.model.EmployeeChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface EmployeeChangeRepository extends JpaRepository<EmployeeChange,Long>{
+
+    // locked so that two relays never number the same changes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select change from EmployeeChange  change where change.offset is null order by change.sequence")
+    List<EmployeeChange> findUnpublished(Pageable pageable);
+
+    @Query("select max(change.offset) from EmployeeChange  change")
+    Optional<Long> findMaxOffset();
+
+    @Query("select min(change.offset) from EmployeeChange  change")
+    Optional<Long> findMinOffset();
+
+    @Query("select change from EmployeeChange  change where change.offset>:after order by change.offset")
+    List<EmployeeChange> findPublishedAfter(@Param("after") long after,Pageable pageable);
+
+    // retention: the newest published row is kept, the relay numbers the next changes from its offset
+    @Modifying
+    @Query("delete from EmployeeChange  change where change.offset is not null and change.createdAt<:cutoff and change.offset<(select max(other.offset) from EmployeeChange  other)")
+    int deletePublishedBefore(@Param("cutoff") Instant cutoff);
+
+    // outbox rows for bulk statements, written with INSERT ... SELECT so the employees are never loaded;
+    // each row takes a whole value of the pooled sequence, which Hibernate never hands out itself.
+    // The employee rows must already be locked (updated, or selected with EmployeeRepository.lock*)
+    // so that change_sequence follows the order in which the changes of an employee commit
+
+    @Modifying
+    @Query(value="insert into employee_changes(id,change_type,employee_id,created_at) select next value for employee_changes_seq,'DELETED',e.id,current_timestamp from employees e where e.id in :ids",nativeQuery=true)
+    int insertDeletedByIds(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query(value="insert into employee_changes(id,change_type,employee_id,created_at) select next value for employee_changes_seq,'DELETED',e.id,current_timestamp from employees e where locate('@',e.email,1)>0 and lower(substring(e.email,locate('@',e.email,1)+1,length(e.email)))=:emailDomain",nativeQuery=true)
+    int insertDeletedByEmailDomain(@Param("emailDomain") String emailDomain);
+
+    @Modifying
+    @Query(value="insert into employee_changes(id,change_type,employee_id,first_name,last_name,email,version,created_at) select next value for employee_changes_seq,'UPDATED',e.id,e.first_name,e.last_name,e.email,e.version,current_timestamp from employees e where e.id=:id",nativeQuery=true)
+    int insertUpdatedById(@Param("id") Long id);
+
+}
@@ -1,15 +1,28 @@
 package com.itbcafrica.springtest.repository;
 
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface EmployeeRepository extends JpaRepository<Employee,Long>{
+public interface EmployeeRepository extends JpaRepository<Employee,Long>,EmployeeRepositoryCustom{
     Optional<Employee> findByEmail(String email);
 
+    @Query("select emp.email from Employee  emp where emp.email in :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     // define custom query using JPQL with index params
     @Query("select emp from Employee  emp where emp.firstName=?1 and emp.lastName=?2")
     Employee findByJPQL(String firstName,String lastName);
@@ -26,4 +39,71 @@ public interface EmployeeRepository extends JpaRepository<Employee,Long>{
     @Query(value="select * from employees e where e.first_name=:firstName and e.last_name=:lastName",nativeQuery=true)
     Employee findByNativeSQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
 
+    // list variants of the four name lookups above: names are not unique, these return every match up to the page size
+
+    @Query("select emp from Employee  emp where emp.firstName=?1 and emp.lastName=?2 order by emp.id")
+    List<Employee> findAllByJPQL(String firstName,String lastName,Pageable pageable);
+
+    @Query("select emp from Employee  emp where emp.firstName=:firstName and emp.lastName=:lastName order by emp.id")
+    List<Employee> findAllByJPQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName,Pageable pageable);
+
+    @Query(value="select * from employees e where e.first_name=?1 and e.last_name=?2 order by e.id",nativeQuery=true)
+    List<Employee> findAllByNativeSQL(String firstName,String lastName,Pageable pageable);
+
+    @Query(value="select * from employees e where e.first_name=:firstName and e.last_name=:lastName order by e.id",nativeQuery=true)
+    List<Employee> findAllByNativeSQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName,Pageable pageable);
+
+    // read endpoints select straight into EmployeeSummary: no managed entities, no dirty-checking snapshots
+
+    @Query("select new com.itbcafrica.springtest.model.EmployeeSummary(emp.id,emp.firstName,emp.lastName,emp.email,emp.version) from Employee  emp order by emp.id")
+    List<EmployeeSummary> findAllSummaries();
+
+    @Query(value="select new com.itbcafrica.springtest.model.EmployeeSummary(emp.id,emp.firstName,emp.lastName,emp.email,emp.version) from Employee  emp",countQuery="select count(emp) from Employee  emp")
+    Page<EmployeeSummary> findAllSummaries(Pageable pageable);
+
+    // keyset pagination: seek past the last seen primary key instead of skipping rows with an offset
+    @Query("select new com.itbcafrica.springtest.model.EmployeeSummary(emp.id,emp.firstName,emp.lastName,emp.email,emp.version) from Employee  emp order by emp.id")
+    List<EmployeeSummary> findFirstPage(Pageable pageable);
+
+    @Query("select new com.itbcafrica.springtest.model.EmployeeSummary(emp.id,emp.firstName,emp.lastName,emp.email,emp.version) from Employee  emp where emp.id>:after order by emp.id")
+    List<EmployeeSummary> findPageAfter(@Param("after") Long after,Pageable pageable);
+
+    @Query("select emp.version from Employee  emp where emp.id=:id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    // single statement deletes, unlike deleteById they do not load the entity first
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee  emp where emp.id=:id")
+    int deleteEmployeeById(@Param("id") Long id);
+
+    // row locks taken before the outbox rows of a bulk delete are written, see EmployeeChangeRepository
+    @Query(value="select id from employees where id in (:ids) for update",nativeQuery=true)
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(value="select id from employees where locate('@',email,1)>0 and lower(substring(email,locate('@',email,1)+1,length(email)))=:emailDomain for update",nativeQuery=true)
+    List<Long> lockByEmailDomain(@Param("emailDomain") String emailDomain);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee  emp where emp.id in :ids")
+    int deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    // exact match on the part after the @, the domain must be lower-cased by the caller
+    @Query("delete from Employee  emp where locate('@',emp.email,1)>0 and lower(substring(emp.email,locate('@',emp.email,1)+1,length(emp.email)))=:emailDomain")
+    int deleteEmployeesByEmailDomain(@Param("emailDomain") String emailDomain);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Employee  emp where emp.id=:id and emp.version=:version")
+    int deleteByIdAndVersion(@Param("id") Long id,@Param("version") Long version);
+
+    // cursor over the whole table, must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name=org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE,value="500"))
+    @Query("select new com.itbcafrica.springtest.model.EmployeeSummary(emp.id,emp.firstName,emp.lastName,emp.email,emp.version) from Employee  emp order by emp.id")
+    Stream<EmployeeSummary> streamAll();
+
 }
@@ -0,0 +1,12 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.model.Employee;
+
+public interface EmployeeRepositoryCustom{
+
+    // updates only the non-null fields of the patch in a single statement, returns the affected row count;
+    // when expectedVersion is not null the row is only updated if it still has that version. A patch without
+    // non-null fields runs no statement and returns 0
+    int updateNonNullFields(Long id,Employee patch,Long expectedVersion);
+
+}
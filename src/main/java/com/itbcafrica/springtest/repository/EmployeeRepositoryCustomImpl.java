@@ -0,0 +1,48 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.model.Employee;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+public class EmployeeRepositoryCustomImpl implements EmployeeRepositoryCustom{
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateNonNullFields(Long id,Employee patch,Long expectedVersion){
+        CriteriaBuilder criteriaBuilder=entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Employee> update=criteriaBuilder.createCriteriaUpdate(Employee.class);
+        Root<Employee> employee=update.from(Employee.class);
+        boolean hasChanges=false;
+        if(patch.getFirstName()!=null){
+            update.set(employee.<String>get("firstName"),patch.getFirstName());
+            hasChanges=true;
+        }
+        if(patch.getLastName()!=null){
+            update.set(employee.<String>get("lastName"),patch.getLastName());
+            hasChanges=true;
+        }
+        if(patch.getEmail()!=null){
+            update.set(employee.<String>get("email"),patch.getEmail());
+            hasChanges=true;
+        }
+        if(!hasChanges){
+            // nothing to write, no statement is sent
+            return 0;
+        }
+        // bulk updates bypass Hibernate versioning, so bump the version explicitly
+        update.set(employee.<Long>get("version"),criteriaBuilder.sum(employee.<Long>get("version"),1L));
+        Predicate matchesId=criteriaBuilder.equal(employee.get("id"),id);
+        update.where(expectedVersion==null ? matchesId : criteriaBuilder.and(matchesId,criteriaBuilder.equal(employee.get("version"),expectedVersion)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+}
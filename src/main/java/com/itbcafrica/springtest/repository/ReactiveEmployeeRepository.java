@@ -0,0 +1,76 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.model.EmployeeRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+
+// R2DBC mirror of EmployeeRepository, only active with the "reactive" profile
+public interface ReactiveEmployeeRepository extends R2dbcRepository<EmployeeRow,Long>{
+    Mono<EmployeeRow> findByEmail(String email);
+
+    // R2DBC has no JPQL: the JPQL variants run the equivalent SQL so both stacks expose the same lookups
+
+    // define custom query with index params
+    @Query("select * from employees e where e.first_name=$1 and e.last_name=$2")
+    Mono<EmployeeRow> findByJPQL(String firstName,String lastName);
+
+    // define custom query with named params
+    @Query("select * from employees e where e.first_name=:firstName and e.last_name=:lastName")
+    Mono<EmployeeRow> findByJPQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+    // define custom query using native SQL  with index params
+    @Query("select * from employees e where e.first_name=$1 and e.last_name=$2")
+    Mono<EmployeeRow> findByNativeSQL(String firstName,String lastName);
+
+    // define custom query using native SQL  with named params
+    @Query("select * from employees e where e.first_name=:firstName and e.last_name=:lastName")
+    Mono<EmployeeRow> findByNativeSQLNamedParams(@Param("firstName") String firstName,@Param("lastName") String lastName);
+
+    // keyset pagination on the primary key
+    @Query("select * from employees e where e.id>:after order by e.id limit :limit")
+    Flux<EmployeeRow> findPageAfter(@Param("after") Long after,@Param("limit") int limit);
+
+    @Query("select * from employees e order by e.id")
+    Flux<EmployeeRow> streamAll();
+
+    // offset pagination, the fallback kept for clients that need random page access
+    @Query("select * from employees e order by e.id limit :limit offset :offset")
+    Flux<EmployeeRow> findPage(@Param("offset") long offset,@Param("limit") int limit);
+
+    // the patch methods bump the version like the JPA bulk update; null fields keep their value
+    @Modifying
+    @Query("update employees set first_name=coalesce(:firstName,first_name), last_name=coalesce(:lastName,last_name), email=coalesce(:email,email), version=version+1 where id=:id")
+    Mono<Integer> updateNonNullFields(@Param("id") Long id,@Param("firstName") String firstName,@Param("lastName") String lastName,@Param("email") String email);
+
+    @Modifying
+    @Query("update employees set first_name=coalesce(:firstName,first_name), last_name=coalesce(:lastName,last_name), email=coalesce(:email,email), version=version+1 where id=:id and version=:version")
+    Mono<Integer> updateNonNullFields(@Param("id") Long id,@Param("firstName") String firstName,@Param("lastName") String lastName,@Param("email") String email,@Param("version") Long version);
+
+    // single statement delete returning the affected row count
+    @Modifying
+    @Query("delete from employees where id=:id")
+    Mono<Integer> deleteEmployeeById(@Param("id") Long id);
+
+    @Modifying
+    @Query("delete from employees where id=:id and version=:version")
+    Mono<Integer> deleteByIdAndVersion(@Param("id") Long id,@Param("version") Long version);
+
+    @Modifying
+    @Query("delete from employees where id in (:ids)")
+    Mono<Integer> deleteEmployeesByIds(@Param("ids") Collection<Long> ids);
+
+    // exact match on the part after the @, the domain must be lower-cased by the caller
+    @Modifying
+    @Query("delete from employees where locate('@',email,1)>0 and lower(substring(email,locate('@',email,1)+1,length(email)))=:emailDomain")
+    Mono<Integer> deleteEmployeesByEmailDomain(@Param("emailDomain") String emailDomain);
+
+    @Query("select next value for employees_seq")
+    Mono<Long> nextId();
+
+}
@@ -0,0 +1,498 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Employees hash-partitioned over several databases with plain JDBC. An employee lives on shard
+ * id mod N; ids are handed out per shard from its own sequence so they never collide across shards.
+ * Each shard also holds the employee_emails directory for the emails hashing to it, which routes
+ * findByEmail to one shard and keeps emails unique across all of them. New employees are placed on
+ * the shard of their email so that row and directory entry are written in one local transaction;
+ * only an email change spans two shards, and stale directory entries it could leave behind are
+ * recognised and taken over by the next claim of the email, whichever write path makes it. Queries without a shard key run on all shards in parallel and their
+ * id-ordered results are merged.
+ */
+public class ShardedEmployeeRepository{
+
+    private static final Logger log=LoggerFactory.getLogger(ShardedEmployeeRepository.class);
+
+    // ids are fetched from the shard sequences in blocks of this size
+    static final int ID_BLOCK_SIZE=50;
+
+    private static final String COLUMNS="id, first_name, last_name, email, version";
+
+    private static final RowMapper<Employee> EMPLOYEE_MAPPER=(rs,rowNum)->new Employee(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"), rs.getString("email"), rs.getLong("version"));
+
+    private static final RowMapper<EmployeeSummary> SUMMARY_MAPPER=(rs,rowNum)->new EmployeeSummary(rs.getLong("id"), rs.getString("first_name"), rs.getString("last_name"), rs.getString("email"), rs.getLong("version"));
+
+    private final List<Shard> shards=new ArrayList<>();
+
+    private final ExecutorService scatterExecutor;
+
+    public ShardedEmployeeRepository(List<DataSource> dataSources){
+        for(int i=0; i<dataSources.size(); i++){
+            shards.add(new Shard(i, dataSources.get(i)));
+        }
+        this.scatterExecutor=Executors.newFixedThreadPool(dataSources.size(), runnable->{
+            Thread thread=new Thread(runnable, "employee-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void createSchema(){
+        for(Shard shard: shards){
+            JdbcTemplate jdbc=shard.jdbc.getJdbcTemplate();
+            jdbc.execute("create table if not exists employees (id bigint primary key, first_name varchar(255) not null, last_name varchar(255) not null, email varchar(255) not null, version bigint not null)");
+            jdbc.execute("create index if not exists "+Employee.NAME_INDEX+" on employees (last_name, first_name)");
+            jdbc.execute("create table if not exists employee_emails (email varchar(255) primary key, employee_id bigint not null)");
+            jdbc.execute("create sequence if not exists employees_seq start with 1 increment by "+ID_BLOCK_SIZE);
+        }
+    }
+
+    // also closes the shard pools, which are not beans of their own
+    public void shutdown(){
+        scatterExecutor.shutdownNow();
+        for(Shard shard: shards){
+            if(shard.dataSource instanceof AutoCloseable){
+                try{
+                    ((AutoCloseable) shard.dataSource).close();
+                }catch(Exception e){
+                    log.warn("Could not close data source of shard {}", shard.index, e);
+                }
+            }
+        }
+    }
+
+    public int getShardCount(){
+        return shards.size();
+    }
+
+    public int shardOf(long id){
+        return Math.floorMod(id, shards.size());
+    }
+
+    public int shardOfEmail(String email){
+        return Math.floorMod(email.hashCode(), shards.size());
+    }
+
+    public Employee save(Employee employee){
+        Shard shard=shards.get(shardOfEmail(employee.getEmail()));
+        try{
+            return shard.tx.execute(status->insert(shard, employee));
+        }catch(DuplicateKeyException e){
+            throw new ResourceAlreadyExistsException("Employee already exist with given email: "+employee.getEmail());
+        }
+    }
+
+    // one transaction and one batch per shard. All or nothing across shards: when a shard fails, the batches
+    // the other shards committed are deleted again before the failure is reported, readers may see them meanwhile
+    public List<Employee> saveAll(List<Employee> employees){
+        Map<Integer,List<Employee>> byShard=employees.stream().collect(Collectors.groupingBy(employee->shardOfEmail(employee.getEmail()), LinkedHashMap::new, Collectors.toList()));
+        if(byShard.size()==1){
+            Shard shard=shards.get(byShard.keySet().iterator().next());
+            shard.tx.execute(status->insertBatch(shard, employees));
+            return employees;
+        }
+        Map<Integer,CompletableFuture<Integer>> calls=new LinkedHashMap<>();
+        byShard.forEach((index,batch)->calls.put(index, CompletableFuture.supplyAsync(()->shards.get(index).tx.execute(status->insertBatch(shards.get(index), batch)), scatterExecutor)));
+        RuntimeException failure=null;
+        List<Integer> committed=new ArrayList<>();
+        for(Map.Entry<Integer,CompletableFuture<Integer>> call: calls.entrySet()){
+            try{
+                call.getValue().join();
+                committed.add(call.getKey());
+            }catch(CompletionException e){
+                if(failure==null){
+                    failure=e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+                }
+            }
+        }
+        if(failure!=null){
+            for(Integer index: committed){
+                Shard shard=shards.get(index);
+                List<Long> ids=byShard.get(index).stream().map(Employee::getId).collect(Collectors.toList());
+                try{
+                    shard.tx.execute(status->{
+                        shard.jdbc.update("delete from employees where id in (:ids)", new MapSqlParameterSource("ids", ids));
+                        return shard.jdbc.update("delete from employee_emails where employee_id in (:ids)", new MapSqlParameterSource("ids", ids));
+                    });
+                }catch(RuntimeException e){
+                    log.error("Could not undo the batch of {} employees committed on shard {}", ids.size(), index, e);
+                }
+            }
+            throw failure;
+        }
+        return employees;
+    }
+
+    // the directory entries go first, a duplicate email fails the batch before any employee row is written
+    private int insertBatch(Shard shard,List<Employee> batch){
+        for(Employee employee: batch){
+            employee.setId(shard.nextId());
+            employee.setVersion(0L);
+        }
+        try{
+            claimEmails(shard, batch);
+        }catch(DuplicateKeyException e){
+            throw new ResourceAlreadyExistsException("Employee already exist with one of the given emails");
+        }
+        shard.jdbc.getJdbcTemplate().batchUpdate("insert into employees ("+COLUMNS+") values (?, ?, ?, ?, ?)", batch, batch.size(), (ps,employee)->{
+            ps.setLong(1, employee.getId());
+            ps.setString(2, employee.getFirstName());
+            ps.setString(3, employee.getLastName());
+            ps.setString(4, employee.getEmail());
+            ps.setLong(5, employee.getVersion());
+        });
+        return batch.size();
+    }
+
+    private Employee insert(Shard shard,Employee employee){
+        employee.setId(shard.nextId());
+        employee.setVersion(0L);
+        claimEmails(shard, List.of(employee));
+        shard.jdbc.getJdbcTemplate().update("insert into employees ("+COLUMNS+") values (?, ?, ?, ?, ?)",
+                employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail(), employee.getVersion());
+        return employee;
+    }
+
+    public Optional<Employee> findById(long id){
+        return shards.get(shardOf(id)).jdbc.getJdbcTemplate().query("select "+COLUMNS+" from employees where id=?", EMPLOYEE_MAPPER, id).stream().findFirst();
+    }
+
+    public boolean existsById(long id){
+        return findById(id).isPresent();
+    }
+
+    public Optional<Employee> findByEmail(String email){
+        return findDirectoryEntry(email)
+                .flatMap(this::findById)
+                .filter(employee->email.equals(employee.getEmail()));
+    }
+
+    private Optional<Long> findDirectoryEntry(String email){
+        return shards.get(shardOfEmail(email)).jdbc.getJdbcTemplate()
+                .queryForList("select employee_id from employee_emails where email=?", Long.class, email).stream().findFirst();
+    }
+
+    // stale directory entries do not count, the next claim of their email takes them over
+    public List<String> findExistingEmails(Collection<String> emails){
+        Map<Integer,List<String>> byShard=emails.stream().distinct().collect(Collectors.groupingBy(this::shardOfEmail));
+        Map<String,Long> entries=new HashMap<>();
+        scatter(byShard.keySet(), shard->findDirectoryEntries(shard, byShard.get(shard.index))).forEach(entries::putAll);
+        return liveEmails(entries);
+    }
+
+    // email -> employee_id of the directory entries of these emails, which must all hash to the shard
+    private Map<String,Long> findDirectoryEntries(Shard emailShard,Collection<String> emails){
+        Map<String,Long> entries=new HashMap<>();
+        emailShard.jdbc.query("select email, employee_id from employee_emails where email in (:emails)", new MapSqlParameterSource("emails", emails),
+                rs->{
+                    entries.put(rs.getString("email"), rs.getLong("employee_id"));
+                });
+        return entries;
+    }
+
+    // the emails whose directory entry points to an employee that still has that email. The owners are read
+    // shard by shard on the calling thread: it can be a scatter task, which must not wait for other scatter tasks
+    private List<String> liveEmails(Map<String,Long> entries){
+        if(entries.isEmpty()){
+            return List.of();
+        }
+        Map<Long,String> ownerEmails=new HashMap<>();
+        entries.values().stream().distinct().collect(Collectors.groupingBy(this::shardOf)).forEach((index,ids)->
+                shards.get(index).jdbc.query("select id, email from employees where id in (:ids)", new MapSqlParameterSource("ids", ids),
+                        rs->{
+                            ownerEmails.put(rs.getLong("id"), rs.getString("email"));
+                        }));
+        return entries.entrySet().stream()
+                .filter(entry->entry.getKey().equals(ownerEmails.get(entry.getValue())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    public List<Employee> findAllById(Collection<Long> ids){
+        Map<Integer,List<Long>> byShard=ids.stream().distinct().collect(Collectors.groupingBy(this::shardOf));
+        List<List<Employee>> results=scatter(byShard.keySet(), shard->shard.jdbc.query("select "+COLUMNS+" from employees where id in (:ids)",
+                new MapSqlParameterSource("ids", byShard.get(shard.index)), EMPLOYEE_MAPPER));
+        return results.stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    public List<EmployeeSummary> findAllSummaries(){
+        return mergeById(scatter(shard->shard.jdbc.getJdbcTemplate().query("select "+COLUMNS+" from employees order by id", SUMMARY_MAPPER)),
+                EmployeeSummary::getId, 0, Integer.MAX_VALUE);
+    }
+
+    // keyset page over all shards: each shard returns its first limit rows after the cursor
+    public List<EmployeeSummary> findPageAfter(Long after,int limit){
+        long cursor=after!=null ? after : Long.MIN_VALUE;
+        return mergeById(scatter(shard->shard.jdbc.getJdbcTemplate().query("select "+COLUMNS+" from employees where id>? order by id limit ?", SUMMARY_MAPPER, cursor, limit)),
+                EmployeeSummary::getId, 0, limit);
+    }
+
+    // offset page over all shards: each shard has to return offset+size rows, so deep pages get expensive
+    public List<EmployeeSummary> findPage(long offset,int size){
+        return mergeById(scatter(shard->shard.jdbc.getJdbcTemplate().query("select "+COLUMNS+" from employees order by id limit ?", SUMMARY_MAPPER, offset+size)),
+                EmployeeSummary::getId, offset, size);
+    }
+
+    public long count(){
+        return countPerShard().stream().mapToLong(Long::longValue).sum();
+    }
+
+    public List<Long> countPerShard(){
+        return scatter(shard->shard.jdbc.getJdbcTemplate().queryForObject("select count(*) from employees", Long.class));
+    }
+
+    public List<Employee> findByName(String firstName,String lastName){
+        return mergeById(scatter(shard->shard.jdbc.getJdbcTemplate().query("select "+COLUMNS+" from employees where last_name=? and first_name=? order by id", EMPLOYEE_MAPPER, lastName, firstName)),
+                Employee::getId, 0, Integer.MAX_VALUE);
+    }
+
+    // all employees in id order, read page by page so memory stays bounded
+    public void forEach(Consumer<EmployeeSummary> consumer,int pageSize){
+        List<EmployeeSummary> page;
+        Long after=null;
+        do{
+            page=findPageAfter(after, pageSize);
+            page.forEach(consumer);
+            if(!page.isEmpty()){
+                after=page.get(page.size()-1).getId();
+            }
+        }while(page.size()==pageSize);
+    }
+
+    /**
+     * Writes the fields of the employee if its version is still the current one. A new email is
+     * claimed in the directory first and the old one released last, so the email stays reserved
+     * for this employee throughout.
+     */
+    public Employee update(Employee employee){
+        Shard shard=shards.get(shardOf(employee.getId()));
+        Optional<String> currentEmail=shard.jdbc.getJdbcTemplate().queryForList("select email from employees where id=?", String.class, employee.getId()).stream().findFirst();
+        if(currentEmail.isEmpty()){
+            throw new PreconditionFailedException("Employee "+employee.getId()+" was modified concurrently");
+        }
+        boolean emailChanged=!currentEmail.get().equals(employee.getEmail());
+        Shard emailShard=shards.get(shardOfEmail(employee.getEmail()));
+        if(emailChanged){
+            try{
+                emailShard.tx.execute(status->{
+                    claimEmails(emailShard, List.of(employee));
+                    return null;
+                });
+            }catch(DuplicateKeyException e){
+                throw new ResourceAlreadyExistsException("Employee already exist with given email: "+employee.getEmail());
+            }
+        }
+        int updatedRows=shard.jdbc.getJdbcTemplate().update("update employees set first_name=?, last_name=?, email=?, version=version+1 where id=? and version=?",
+                employee.getFirstName(), employee.getLastName(), employee.getEmail(), employee.getId(), employee.getVersion());
+        if(updatedRows==0){
+            if(emailChanged){
+                releaseEmail(employee.getEmail(), employee.getId());
+            }
+            throw new PreconditionFailedException("Employee "+employee.getId()+" was modified concurrently");
+        }
+        if(emailChanged){
+            releaseEmail(currentEmail.get(), employee.getId());
+        }
+        employee.setVersion(employee.getVersion()+1);
+        return employee;
+    }
+
+    public boolean deleteById(long id,Long expectedVersion){
+        Shard shard=shards.get(shardOf(id));
+        Optional<Employee> employee=findById(id);
+        if(employee.isEmpty()){
+            return false;
+        }
+        int deletedRows=expectedVersion!=null
+                ? shard.jdbc.getJdbcTemplate().update("delete from employees where id=? and version=?", id, expectedVersion)
+                : shard.jdbc.getJdbcTemplate().update("delete from employees where id=?", id);
+        if(deletedRows==0){
+            if(expectedVersion!=null && existsById(id)){
+                throw new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion);
+            }
+            return false;
+        }
+        releaseEmail(employee.get().getEmail(), id);
+        return true;
+    }
+
+    public int deleteAllById(Collection<Long> ids){
+        List<Employee> employees=findAllById(ids);
+        Map<Integer,List<Long>> byShard=employees.stream().map(Employee::getId).collect(Collectors.groupingBy(this::shardOf));
+        int deleted=scatter(byShard.keySet(), shard->shard.jdbc.update("delete from employees where id in (:ids)", new MapSqlParameterSource("ids", byShard.get(shard.index))))
+                .stream().mapToInt(Integer::intValue).sum();
+        employees.forEach(employee->releaseEmail(employee.getEmail(), employee.getId()));
+        return deleted;
+    }
+
+    // emailDomain must be lower-cased, see EmailDomains
+    public List<Long> findIdsByEmailDomain(String emailDomain){
+        return scatter(shard->shard.jdbc.getJdbcTemplate().queryForList("select id from employees where locate('@', email, 1)>0 and lower(substring(email, locate('@', email, 1)+1, length(email)))=?", Long.class, emailDomain))
+                .stream().flatMap(List::stream).collect(Collectors.toList());
+    }
+
+    /**
+     * Claims the emails of the employees, which must all hash to the shard, for their ids; used by every
+     * write path so they all agree on what a duplicate is. A free email is inserted, an entry left over by
+     * an email change that did not complete is taken over with an update conditional on its stale owner,
+     * an entry of a live employee is a duplicate. Two claims racing for the same email cannot both win:
+     * one insert hits the primary key or one takeover updates no row, both fail with DuplicateKeyException.
+     * The entries are read first because a failed statement aborts the whole transaction on some databases.
+     */
+    private void claimEmails(Shard emailShard,List<Employee> employees){
+        Map<String,Long> entries=findDirectoryEntries(emailShard, employees.stream().map(Employee::getEmail).collect(Collectors.toList()));
+        List<String> taken=liveEmails(entries);
+        if(!taken.isEmpty()){
+            throw new DuplicateKeyException("Emails "+taken+" belong to other employees");
+        }
+        List<Employee> free=new ArrayList<>();
+        for(Employee employee: employees){
+            Long staleOwner=entries.get(employee.getEmail());
+            if(staleOwner==null){
+                free.add(employee);
+            }else if(emailShard.jdbc.getJdbcTemplate().update("update employee_emails set employee_id=? where email=? and employee_id=?", employee.getId(), employee.getEmail(), staleOwner)==0){
+                throw new DuplicateKeyException("Email "+employee.getEmail()+" was claimed concurrently");
+            }
+        }
+        if(!free.isEmpty()){
+            emailShard.jdbc.getJdbcTemplate().batchUpdate("insert into employee_emails (email, employee_id) values (?, ?)", free, free.size(), (ps,employee)->{
+                ps.setString(1, employee.getEmail());
+                ps.setLong(2, employee.getId());
+            });
+        }
+    }
+
+    private void releaseEmail(String email,long employeeId){
+        shards.get(shardOfEmail(email)).jdbc.getJdbcTemplate().update("delete from employee_emails where email=? and employee_id=?", email, employeeId);
+    }
+
+    private <T> List<T> scatter(Function<Shard,T> query){
+        return scatter(shards.stream().map(shard->shard.index).collect(Collectors.toList()), query);
+    }
+
+    // runs the query on the given shards in parallel, results in shard order
+    private <T> List<T> scatter(Collection<Integer> shardIndexes,Function<Shard,T> query){
+        if(shardIndexes.size()==1){
+            return List.of(query.apply(shards.get(shardIndexes.iterator().next())));
+        }
+        List<CompletableFuture<T>> calls=shardIndexes.stream()
+                .map(index->CompletableFuture.supplyAsync(()->query.apply(shards.get(index)), scatterExecutor))
+                .collect(Collectors.toList());
+        try{
+            return calls.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        }catch(CompletionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // k-way merge of lists already sorted by id, skipping the first skip rows and keeping at most limit
+    static <T> List<T> mergeById(List<List<T>> sortedLists,ToLongFunction<T> id,long skip,int limit){
+        PriorityQueue<Head<T>> heads=new PriorityQueue<>(Comparator.comparingLong((Head<T> head)->id.applyAsLong(head.value)));
+        for(List<T> list: sortedLists){
+            Iterator<T> rows=list.iterator();
+            if(rows.hasNext()){
+                heads.add(new Head<>(rows.next(), rows));
+            }
+        }
+        List<T> merged=new ArrayList<>();
+        long skipped=0;
+        while(!heads.isEmpty() && merged.size()<limit){
+            Head<T> head=heads.poll();
+            if(skipped<skip){
+                skipped++;
+            }else{
+                merged.add(head.value);
+            }
+            if(head.rows.hasNext()){
+                heads.add(new Head<>(head.rows.next(), head.rows));
+            }
+        }
+        return merged;
+    }
+
+    private static final class Head<T>{
+
+        private final T value;
+
+        private final Iterator<T> rows;
+
+        private Head(T value,Iterator<T> rows){
+            this.value=value;
+            this.rows=rows;
+        }
+
+    }
+
+    private final class Shard{
+
+        private final int index;
+
+        private final DataSource dataSource;
+
+        private final NamedParameterJdbcTemplate jdbc;
+
+        private final TransactionTemplate tx;
+
+        // current block of local sequence values: next..limit inclusive
+        private long next=1;
+
+        private long limit=0;
+
+        private Shard(int index,DataSource dataSource){
+            this.index=index;
+            this.dataSource=dataSource;
+            this.jdbc=new NamedParameterJdbcTemplate(dataSource);
+            this.tx=new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+
+        // global id: local sequence value * shard count + shard index, so id mod N gives the shard back
+        private synchronized long nextId(){
+            if(next>limit){
+                long blockStart=jdbc.getJdbcTemplate().queryForObject("select next value for employees_seq", Long.class);
+                next=blockStart;
+                limit=blockStart+ID_BLOCK_SIZE-1;
+            }
+            return (next++)*shards.size()+index;
+        }
+
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.itbcafrica.springtest.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface EmployeeChangeFeed{
+    // streams the changes published after offset since, or only new ones when since is null;
+    // throws ChangesPurgedException when changes after since have already been purged
+    SseEmitter subscribe(Long since);
+
+    // numbers and publishes pending outbox rows, returns how many were published
+    int relay();
+
+    // deletes published changes older than the retention window, returns how many were deleted
+    int purgePublished();
+}
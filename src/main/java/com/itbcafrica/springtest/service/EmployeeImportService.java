@@ -0,0 +1,10 @@
+package com.itbcafrica.springtest.service;
+
+import com.itbcafrica.springtest.model.EmployeeImportReport;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface EmployeeImportService{
+    EmployeeImportReport importEmployees(Reader csv) throws IOException;
+}
@@ -1,18 +1,50 @@
 package com.itbcafrica.springtest.service;
 
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.springframework.data.domain.Page;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EmployeeService{
     Employee saveEmployee(Employee employee);
 
-    List<Employee> getAllEmployees();
+    List<Employee> saveEmployees(List<Employee> employees);
+
+    // saves the employees whose email is not taken yet and skips the others, with one duplicate check
+    // for the whole list; returns the saved ones
+    List<Employee> saveNewEmployees(List<Employee> employees);
+
+    List<EmployeeSummary> getAllEmployees();
+
+    EmployeeCursorPage getEmployeesAfter(Long after,int limit);
+
+    Page<EmployeeSummary> getEmployeesPage(int page,int size);
+
+    void exportEmployees(Consumer<EmployeeSummary> consumer);
+
+    List<EmployeeSummary> searchEmployees(String query,int limit);
 
     Optional<Employee> getEmployeeById(Long id);
 
+    Optional<Employee> getEmployeeByEmail(String email);
+
+    EmployeeLookupResult getEmployeesByIds(List<Long> ids);
+
     Employee updateEmployee(Employee updateEmployee);
 
-    void deleteEmployee(Long id);
+    // false when there is no employee with that id
+    boolean patchEmployee(Long id,Employee patch,Long expectedVersion);
+
+    boolean deleteEmployee(Long id);
+
+    boolean deleteEmployee(Long id,Long expectedVersion);
+
+    int deleteEmployees(List<Long> ids);
+
+    int deleteEmployeesByEmailDomain(String emailDomain);
 }
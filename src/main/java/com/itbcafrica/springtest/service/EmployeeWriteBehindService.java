@@ -0,0 +1,16 @@
+package com.itbcafrica.springtest.service;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCreateStatus;
+
+import java.util.Optional;
+
+public interface EmployeeWriteBehindService{
+    // queues the employee for the next batched insert, empty when the queue is full
+    Optional<EmployeeCreateStatus> submit(Employee employee);
+
+    Optional<EmployeeCreateStatus> getStatus(String ticket);
+
+    // inserts everything queued so far, returns how many creates were processed
+    int flush();
+}
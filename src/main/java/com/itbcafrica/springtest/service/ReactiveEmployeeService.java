@@ -0,0 +1,41 @@
+package com.itbcafrica.springtest.service;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.springframework.data.domain.Page;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+public interface ReactiveEmployeeService{
+    Mono<Employee> saveEmployee(Employee employee);
+
+    Flux<Employee> saveEmployees(List<Employee> employees);
+
+    Flux<Employee> getAllEmployees();
+
+    Mono<EmployeeCursorPage> getEmployeesAfter(Long after,int limit);
+
+    Mono<Page<EmployeeSummary>> getEmployeesPage(int page,int size);
+
+    Mono<Employee> getEmployeeById(Long id);
+
+    Mono<Employee> getEmployeeByEmail(String email);
+
+    Mono<EmployeeLookupResult> getEmployeesByIds(List<Long> ids);
+
+    Mono<Employee> updateEmployee(Employee updateEmployee);
+
+    Mono<Boolean> patchEmployee(Long id,Employee patch,Long expectedVersion);
+
+    Mono<Boolean> deleteEmployee(Long id);
+
+    Mono<Boolean> deleteEmployee(Long id,Long expectedVersion);
+
+    Mono<Integer> deleteEmployees(List<Long> ids);
+
+    Mono<Integer> deleteEmployeesByEmailDomain(String emailDomain);
+}
@@ -0,0 +1,359 @@
+package com.itbcafrica.springtest.service.impl;
+
+import com.itbcafrica.springtest.exception.ChangesPurgedException;
+import com.itbcafrica.springtest.model.EmployeeChange;
+import com.itbcafrica.springtest.model.EmployeeChangeEvent;
+import com.itbcafrica.springtest.repository.EmployeeChangeRepository;
+import com.itbcafrica.springtest.service.EmployeeChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Relays the employee_changes outbox to server-sent event subscribers. Offsets are assigned by the
+ * relay in publication order, not at insert time, so a transaction committing late can never slip
+ * in behind an offset a consumer has already passed. Each subscriber has a bounded queue drained by
+ * a small shared pool, one task per subscriber at a time, which keeps every stream in offset order:
+ * a new subscriber pages through the table from its offset, however far behind it is, and only then
+ * takes live events in its queue. A subscriber whose queue overflows, or whose send has been blocked
+ * longer than the send timeout, is dropped so it cannot hold back the others; it resumes from its
+ * Last-Event-ID when it reconnects. Published rows older than the retention window are deleted: a
+ * since older than that is answered 410 Gone, and a purge racing a catch-up ends the stream with a
+ * reset event, the client has to reload the employees before it subscribes again. The outbox is always
+ * read on the primary: a lagging read replica would hide the newest rows from a catch-up, and a live
+ * event that does not follow the cursor sends the subscriber back to the table.
+ * Only the JPA employee service writes the outbox, so the feed is off when employees are sharded.
+ */
+@Service
+@Profile("!reactive")
+@ConditionalOnExpression("'${app.sharding.urls:}'.isEmpty()")
+public class EmployeeChangeFeedImpl implements EmployeeChangeFeed{
+
+    static final int RELAY_BATCH_SIZE=500;
+
+    private EmployeeChangeRepository changeRepository;
+
+    // not read-only, so that outbox reads are never routed to a read replica
+    private TransactionTemplate transactionTemplate;
+
+    private long sseTimeoutMs;
+
+    private int subscriberBuffer;
+
+    private long sendTimeoutNanos;
+
+    private Duration retention;
+
+    private final Set<Subscriber> subscribers=ConcurrentHashMap.newKeySet();
+
+    // cleared when the context starts closing, before the data source and entity manager go away
+    private volatile boolean running=true;
+
+    private final ExecutorService dispatcher;
+
+    public EmployeeChangeFeedImpl(EmployeeChangeRepository changeRepository,PlatformTransactionManager transactionManager,
+                                  @Value("${app.changes.sse-timeout-ms:1800000}") long sseTimeoutMs,
+                                  @Value("${app.changes.subscriber-buffer:1000}") int subscriberBuffer,
+                                  @Value("${app.changes.send-timeout:10s}") Duration sendTimeout,
+                                  @Value("${app.changes.dispatcher-threads:4}") int dispatcherThreads,
+                                  @Value("${app.changes.retention:7d}") Duration retention){
+        this.changeRepository=changeRepository;
+        this.transactionTemplate=new TransactionTemplate(transactionManager);
+        this.sseTimeoutMs=sseTimeoutMs;
+        this.subscriberBuffer=subscriberBuffer;
+        this.sendTimeoutNanos=sendTimeout.toNanos();
+        this.retention=retention;
+        AtomicInteger threads=new AtomicInteger();
+        this.dispatcher=Executors.newFixedThreadPool(dispatcherThreads, runnable->{
+            Thread thread=new Thread(runnable, "employee-changes-"+threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public SseEmitter subscribe(Long since){
+        if(since!=null){
+            // offsets are consecutive, a purged one right after since means the client missed changes
+            Long oldestOffset=transactionTemplate.execute(status->changeRepository.findMinOffset().orElse(null));
+            if(oldestOffset!=null && since+1<oldestOffset){
+                throw new ChangesPurgedException("Changes after offset "+since+" are no longer kept, the oldest is "+oldestOffset+": reload the employees and subscribe again");
+            }
+        }
+        SseEmitter emitter=createEmitter(sseTimeoutMs);
+        Subscriber subscriber=new Subscriber(emitter, since, subscriberBuffer);
+        emitter.onCompletion(()->drop(subscriber));
+        emitter.onTimeout(()->drop(subscriber));
+        emitter.onError(e->drop(subscriber));
+        // registered before the catch-up reads the table, so no change published meanwhile is missed
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    protected SseEmitter createEmitter(long timeoutMs){
+        return new SseEmitter(timeoutMs);
+    }
+
+    // synchronized so that stop() waits for a relay that is still in its transaction
+    @Override
+    @Scheduled(fixedDelayString="${app.changes.relay-interval-ms:200}")
+    public synchronized int relay(){
+        if(!running){
+            return 0;
+        }
+        dropStalledSubscribers();
+        int relayed=0;
+        List<EmployeeChangeEvent> batch;
+        do{
+            batch=transactionTemplate.execute(status->publishBatch());
+            if(!batch.isEmpty()){
+                deliver(batch);
+            }
+            relayed+=batch.size();
+        }while(batch.size()==RELAY_BATCH_SIZE);
+        return relayed;
+    }
+
+    // the newest published row is always kept, the next offsets are counted from it
+    @Override
+    @Scheduled(fixedDelayString="${app.changes.purge-interval-ms:60000}")
+    public synchronized int purgePublished(){
+        if(!running){
+            return 0;
+        }
+        Instant cutoff=Instant.now().minus(retention);
+        return transactionTemplate.execute(status->changeRepository.deletePublishedBefore(cutoff));
+    }
+
+    // the new offsets are flushed as batched updates when the transaction commits
+    private List<EmployeeChangeEvent> publishBatch(){
+        List<EmployeeChange> pending=changeRepository.findUnpublished(PageRequest.of(0, RELAY_BATCH_SIZE));
+        if(pending.isEmpty()){
+            return List.of();
+        }
+        long offset=changeRepository.findMaxOffset().orElse(0L);
+        List<EmployeeChangeEvent> events=new ArrayList<>(pending.size());
+        for(EmployeeChange change: pending){
+            change.setOffset(++offset);
+            events.add(EmployeeChangeEvent.of(change));
+        }
+        return events;
+    }
+
+    // only the relay thread adds to the queues, so the capacity check cannot be raced.
+    // A subscriber still catching up reads these events from the table later
+    private void deliver(List<EmployeeChangeEvent> events){
+        for(Subscriber subscriber: subscribers){
+            if(subscriber.catchingUp){
+                continue;
+            }
+            if(subscriber.events.remainingCapacity()<events.size()){
+                drop(subscriber);
+            }else{
+                subscriber.events.addAll(events);
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void dropStalledSubscribers(){
+        long now=System.nanoTime();
+        for(Subscriber subscriber: subscribers){
+            long sendStartedAt=subscriber.sendStartedAt;
+            if(sendStartedAt!=0 && now-sendStartedAt>sendTimeoutNanos){
+                drop(subscriber);
+            }
+        }
+    }
+
+    // the emitter is completed by the subscriber's own drain task, never while one of its sends is blocked
+    private void drop(Subscriber subscriber){
+        subscriber.closed=true;
+        subscribers.remove(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber){
+        if(subscriber.scheduled.compareAndSet(false, true)){
+            try{
+                dispatcher.execute(()->drain(subscriber));
+            }catch(RejectedExecutionException e){
+                // shutting down
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber){
+        try{
+            if(subscriber.catchingUp && !subscriber.closed){
+                subscriber.cursor=subscriber.since!=null ? subscriber.since : transactionTemplate.execute(status->changeRepository.findMaxOffset().orElse(0L));
+                catchUpAndGoLive(subscriber);
+            }
+            EmployeeChangeEvent event;
+            while(!subscriber.closed && (event=subscriber.events.poll())!=null){
+                // events the catch-up has already sent are skipped
+                if(event.getOffset()<=subscriber.cursor){
+                    continue;
+                }
+                // a gap after the cursor: the missing events and the queued ones are read from the table again
+                if(event.getOffset()!=subscriber.cursor+1){
+                    subscriber.catchingUp=true;
+                    subscriber.events.clear();
+                    catchUpAndGoLive(subscriber);
+                    continue;
+                }
+                if(!send(subscriber, event)){
+                    break;
+                }
+            }
+        }finally{
+            if(subscriber.closed){
+                subscriber.events.clear();
+                complete(subscriber);
+            }
+            subscriber.scheduled.set(false);
+            // an event queued after the loop above ended but before the flag was cleared
+            if(!subscriber.closed && !subscriber.events.isEmpty()){
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void catchUpAndGoLive(Subscriber subscriber){
+        catchUp(subscriber);
+        // from here the relay queues live events; the second pass reads what it published before the switch
+        subscriber.catchingUp=false;
+        catchUp(subscriber);
+    }
+
+    private void catchUp(Subscriber subscriber){
+        List<EmployeeChangeEvent> page;
+        do{
+            long after=subscriber.cursor;
+            page=transactionTemplate.execute(status->changeRepository.findPublishedAfter(after, PageRequest.of(0, RELAY_BATCH_SIZE))
+                    .stream().map(EmployeeChangeEvent::of).collect(Collectors.toList()));
+            for(EmployeeChangeEvent event: page){
+                if(event.getOffset()!=subscriber.cursor+1){
+                    reset(subscriber);
+                    return;
+                }
+                if(!send(subscriber, event)){
+                    return;
+                }
+            }
+        }while(page.size()==RELAY_BATCH_SIZE && !subscriber.closed);
+    }
+
+    private boolean send(Subscriber subscriber,EmployeeChangeEvent event){
+        subscriber.sendStartedAt=System.nanoTime();
+        try{
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getOffset()))
+                    .name(event.getType().name().toLowerCase(Locale.ROOT))
+                    .data(event, MediaType.APPLICATION_JSON));
+            subscriber.cursor=event.getOffset();
+            return !subscriber.closed;
+        }catch(IOException|IllegalStateException e){
+            // client gone or emitter already completed
+            drop(subscriber);
+            return false;
+        }finally{
+            subscriber.sendStartedAt=0;
+        }
+    }
+
+    // the changes after the cursor were purged while the subscriber caught up
+    private void reset(Subscriber subscriber){
+        try{
+            subscriber.emitter.send(SseEmitter.event()
+                    .name("reset")
+                    .data("Changes after offset "+subscriber.cursor+" are no longer kept: reload the employees and subscribe again"));
+        }catch(IOException|IllegalStateException e){
+            // client gone or emitter already completed
+        }
+        drop(subscriber);
+    }
+
+    private static void complete(Subscriber subscriber){
+        if(!subscriber.completed){
+            subscriber.completed=true;
+            try{
+                subscriber.emitter.complete();
+            }catch(IllegalStateException e){
+                // the request is already over
+            }
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public synchronized void stop(){
+        running=false;
+    }
+
+    @PreDestroy
+    public void shutdown(){
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber->subscriber.emitter.complete());
+    }
+
+    private static final class Subscriber{
+
+        private final SseEmitter emitter;
+
+        // offset to resume after, null for new changes only
+        private final Long since;
+
+        private final BlockingQueue<EmployeeChangeEvent> events;
+
+        private final AtomicBoolean scheduled=new AtomicBoolean();
+
+        private volatile boolean closed;
+
+        // System.nanoTime() when the send in progress started, 0 between sends
+        private volatile long sendStartedAt;
+
+        // only touched by the drain task, which never runs twice at once for a subscriber
+        private long cursor;
+
+        // read by the relay thread, which leaves the queue alone until the catch-up is over
+        private volatile boolean catchingUp=true;
+
+        private boolean completed;
+
+        private Subscriber(SseEmitter emitter,Long since,int capacity){
+            this.emitter=emitter;
+            this.since=since;
+            this.events=new ArrayBlockingQueue<>(capacity);
+        }
+
+    }
+
+}
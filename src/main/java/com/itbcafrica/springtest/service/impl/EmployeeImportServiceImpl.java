@@ -0,0 +1,211 @@
+package com.itbcafrica.springtest.service.impl;
+
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeImportError;
+import com.itbcafrica.springtest.model.EmployeeImportReport;
+import com.itbcafrica.springtest.service.EmployeeImportService;
+import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.support.CsvReader;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.PersistenceException;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * CSV bulk import. The upload is read one chunk of rows at a time: rows are validated in parallel
+ * and inserted with one {@link EmployeeService#saveNewEmployees} call per chunk, which runs the only
+ * duplicate email check of the chunk. Rows are limited in length, so memory use does not grow with
+ * the file, and they go to whichever store the employee service uses (JPA or the shards). Earlier
+ * chunks are committed, which is how the duplicate check also catches repeated emails across chunks.
+ */
+@Service
+public class EmployeeImportServiceImpl implements EmployeeImportService{
+
+    // rows per transaction, also the size of the IN list of the duplicate check
+    static final int CHUNK_SIZE=EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE;
+
+    static final int MAX_REPORTED_ERRORS=1000;
+
+    // must match the column length of Employee, longer fields are rejected by the reader
+    static final int MAX_FIELD_LENGTH=255;
+
+    // a row is rejected past this many characters, an unterminated quote cannot buffer the rest of the file
+    static final int MAX_RECORD_LENGTH=4096;
+
+    private static final Pattern EMAIL=Pattern.compile("[^@\\s]+@[^@\\s]+\\.[^@\\s]+");
+
+    private static final List<String> COLUMNS=List.of("firstname","lastname","email");
+
+    private EmployeeService employeeService;
+
+    public EmployeeImportServiceImpl(EmployeeService employeeService){
+        this.employeeService=employeeService;
+    }
+
+    @Override
+    public EmployeeImportReport importEmployees(Reader csv) throws IOException{
+        Progress progress=new Progress();
+        CsvReader reader=new CsvReader(csv, MAX_FIELD_LENGTH, MAX_RECORD_LENGTH);
+        int[] columns;
+        try{
+            columns=columnIndexes(reader.readRecord());
+        }catch(CsvReader.RecordTooLongException e){
+            columns=null;
+        }
+        if(columns==null){
+            progress.reject(1, null, "Header must name the columns "+String.join(", ", COLUMNS));
+            return progress.toReport();
+        }
+        List<CsvRow> chunk=new ArrayList<>(CHUNK_SIZE);
+        long row=1;
+        while(true){
+            List<String> fields;
+            try{
+                fields=reader.readRecord();
+            }catch(CsvReader.RecordTooLongException e){
+                progress.rowsRead++;
+                progress.reject(++row, null, e.getMessage());
+                continue;
+            }
+            if(fields==null){
+                break;
+            }
+            chunk.add(new CsvRow(++row, fields));
+            if(chunk.size()==CHUNK_SIZE){
+                importChunk(chunk, columns, progress);
+                chunk.clear();
+            }
+        }
+        if(!chunk.isEmpty()){
+            importChunk(chunk, columns, progress);
+        }
+        return progress.toReport();
+    }
+
+    // header names are matched ignoring case and underscores, so first_name works as well as firstName
+    private static int[] columnIndexes(List<String> header){
+        if(header==null){
+            return null;
+        }
+        List<String> names=header.stream().map(name->name.trim().replace("_", "").toLowerCase(Locale.ROOT)).collect(Collectors.toList());
+        int[] columns=new int[COLUMNS.size()];
+        for(int i=0; i<columns.length; i++){
+            columns[i]=names.indexOf(COLUMNS.get(i));
+            if(columns[i]<0){
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    private void importChunk(List<CsvRow> chunk,int[] columns,Progress progress){
+        progress.rowsRead+=chunk.size();
+        List<CsvRow> parsed=chunk.parallelStream().map(row->row.parse(columns)).collect(Collectors.toList());
+        Map<String,CsvRow> valid=new LinkedHashMap<>();
+        for(CsvRow row: parsed){
+            if(row.error!=null){
+                progress.reject(row.row, row.email(), row.error);
+            }else if(valid.putIfAbsent(row.employee.getEmail(), row)!=null){
+                progress.reject(row.row, row.email(), "Duplicate email in the file");
+            }
+        }
+        if(valid.isEmpty()){
+            return;
+        }
+        List<Employee> employees=new ArrayList<>(valid.size());
+        valid.values().forEach(row->employees.add(row.employee));
+        Set<String> savedEmails=new HashSet<>();
+        try{
+            employeeService.saveNewEmployees(employees).forEach(employee->savedEmails.add(employee.getEmail()));
+        }catch(ResourceAlreadyExistsException|DataIntegrityViolationException|PersistenceException e){
+            // an email was taken concurrently between the check and the insert, the whole chunk was rolled back
+            for(CsvRow row: valid.values()){
+                progress.reject(row.row, row.email(), "Not imported, an email of this chunk was inserted concurrently");
+            }
+            return;
+        }
+        progress.imported+=savedEmails.size();
+        for(CsvRow row: valid.values()){
+            if(!savedEmails.contains(row.email())){
+                progress.reject(row.row, row.email(), "Employee already exist with given email: "+row.email());
+            }
+        }
+    }
+
+    private static final class CsvRow{
+
+        private final long row;
+
+        private final List<String> fields;
+
+        private Employee employee;
+
+        private String error;
+
+        private CsvRow(long row,List<String> fields){
+            this.row=row;
+            this.fields=fields;
+        }
+
+        // runs on the common fork-join pool, touches nothing but this row
+        private CsvRow parse(int[] columns){
+            for(int column: columns){
+                if(column>=fields.size()){
+                    error="Expected at least "+(column+1)+" columns, found "+fields.size();
+                    return this;
+                }
+            }
+            String firstName=fields.get(columns[0]).trim();
+            String lastName=fields.get(columns[1]).trim();
+            String email=fields.get(columns[2]).trim();
+            if(firstName.isEmpty() || lastName.isEmpty() || email.isEmpty()){
+                error="firstName, lastName and email are required";
+            }else if(!EMAIL.matcher(email).matches()){
+                error="Invalid email: "+email;
+            }
+            employee=Employee.builder().firstName(firstName).lastName(lastName).email(email).build();
+            return this;
+        }
+
+        private String email(){
+            return employee!=null ? employee.getEmail() : null;
+        }
+
+    }
+
+    private static final class Progress{
+
+        private long rowsRead;
+
+        private long imported;
+
+        private long failed;
+
+        private final List<EmployeeImportError> errors=new ArrayList<>();
+
+        private void reject(long row,String email,String message){
+            failed++;
+            if(errors.size()<MAX_REPORTED_ERRORS){
+                errors.add(new EmployeeImportError(row, email, message));
+            }
+        }
+
+        private EmployeeImportReport toReport(){
+            return new EmployeeImportReport(rowsRead, imported, failed, errors);
+        }
+
+    }
+
+}
@@ -1,49 +1,395 @@
 package com.itbcafrica.springtest.service.impl;
 
-import com.itbcafrica.springtest.exception.ResourceNotFoundException;
+import com.itbcafrica.springtest.config.CacheConfig;
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeChange;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.EmployeeChangeRepository;
 import com.itbcafrica.springtest.repository.EmployeeRepository;
 import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.support.EmailDomains;
+import com.itbcafrica.springtest.service.support.EmployeeSearchIndex;
+import com.itbcafrica.springtest.service.support.SingleFlight;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class EmployeeServiceImpl implements EmployeeService{
 
+    static final int MAX_PAGE_SIZE=1000;
+
+    // keep in sync with hibernate.jdbc.batch_size and the id sequence allocation size
+    static final int BATCH_SIZE=50;
+
+    // upper bound for the number of bind parameters in a single IN list
+    static final int IN_CLAUSE_CHUNK_SIZE=1000;
+
     private EmployeeRepository employeeRepository;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository){
+    private CacheManager cacheManager;
+
+    private EmployeeSearchIndex searchIndex;
+
+    // outbox of the change feed, always written in the transaction of the change itself
+    private EmployeeChangeRepository changeRepository;
+
+    // concurrent cache misses for the same key share one database query
+    private final SingleFlight<Long,Optional<Employee>> idLookups=new SingleFlight<>();
+
+    private final SingleFlight<String,Optional<Employee>> emailLookups=new SingleFlight<>();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public EmployeeServiceImpl(EmployeeRepository employeeRepository,CacheManager cacheManager,EmployeeSearchIndex searchIndex,EmployeeChangeRepository changeRepository){
         this.employeeRepository=employeeRepository;
+        this.cacheManager=cacheManager;
+        this.searchIndex=searchIndex;
+        this.changeRepository=changeRepository;
     }
 
     @Override
+    @Transactional
     public Employee saveEmployee(Employee employee){
-        Optional<Employee> savedEmployee=employeeRepository.findByEmail(employee.getEmail());
-        if(savedEmployee.isPresent()){
-            throw new ResourceNotFoundException("Employee already exist with given email: "+employee.getEmail());
+        // the unique index on email is the duplicate check: one insert, no prior select
+        Employee savedEmployee;
+        try{
+            savedEmployee=employeeRepository.saveAndFlush(employee);
+        }catch(DataIntegrityViolationException e){
+            throw translateDuplicateEmail(e, "Employee already exist with given email: "+employee.getEmail());
+        }
+        changeRepository.save(EmployeeChange.of(EmployeeChange.Type.CREATED, savedEmployee));
+        afterCommit(()->searchIndex.put(savedEmployee));
+        return savedEmployee;
+    }
+
+    private static RuntimeException translateDuplicateEmail(RuntimeException e,String message){
+        if(e.getCause() instanceof ConstraintViolationException){
+            String constraintName=((ConstraintViolationException) e.getCause()).getConstraintName();
+            if(constraintName!=null && constraintName.toLowerCase().contains(Employee.EMAIL_UNIQUE_INDEX)){
+                return new ResourceAlreadyExistsException(message);
+            }
+        }
+        return e;
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveEmployees(List<Employee> employees){
+        Set<String> emails=new HashSet<>();
+        Set<String> duplicates=new LinkedHashSet<>();
+        for(Employee employee: employees){
+            if(!emails.add(employee.getEmail())){
+                duplicates.add(employee.getEmail());
+            }
+        }
+        duplicates.addAll(findExistingEmails(emails));
+        if(!duplicates.isEmpty()){
+            throw new ResourceAlreadyExistsException("Employee already exist with given email: "+String.join(", ", duplicates));
+        }
+        return insertEmployees(employees);
+    }
+
+    @Override
+    @Transactional
+    public List<Employee> saveNewEmployees(List<Employee> employees){
+        Set<String> existingEmails=new HashSet<>(findExistingEmails(employees.stream().map(Employee::getEmail).collect(Collectors.toCollection(LinkedHashSet::new))));
+        List<Employee> newEmployees=new ArrayList<>(employees.size());
+        for(Employee employee: employees){
+            if(!existingEmails.contains(employee.getEmail())){
+                newEmployees.add(employee);
+            }
+        }
+        return newEmployees.isEmpty() ? newEmployees : insertEmployees(newEmployees);
+    }
+
+    // on the primary, as every caller is a write transaction: a lagging replica would let a taken email through
+    private List<String> findExistingEmails(Collection<String> emails){
+        List<String> uniqueEmails=new ArrayList<>(emails);
+        List<String> existingEmails=new ArrayList<>();
+        for(int i=0; i<uniqueEmails.size(); i+=IN_CLAUSE_CHUNK_SIZE){
+            existingEmails.addAll(employeeRepository.findExistingEmails(uniqueEmails.subList(i, Math.min(i+IN_CLAUSE_CHUNK_SIZE, uniqueEmails.size()))));
+        }
+        return existingEmails;
+    }
+
+    private List<Employee> insertEmployees(List<Employee> employees){
+        List<Employee> savedEmployees=new ArrayList<>(employees.size());
+        try{
+            for(int i=0; i<employees.size(); i+=BATCH_SIZE){
+                List<Employee> batch=employeeRepository.saveAll(employees.subList(i, Math.min(i+BATCH_SIZE, employees.size())));
+                for(Employee savedEmployee: batch){
+                    changeRepository.save(EmployeeChange.of(EmployeeChange.Type.CREATED, savedEmployee));
+                }
+                savedEmployees.addAll(batch);
+                // send the pending batch and keep the persistence context small for large imports
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }catch(PersistenceException e){
+            // a concurrent insert took one of the emails between the check and the flush
+            throw translateDuplicateEmail(e, "Employee already exist with one of the given emails");
+        }
+        afterCommit(()->searchIndex.putAll(savedEmployees));
+        return savedEmployees;
+    }
+
+    @Override
+    @Transactional(readOnly=true)
+    public List<EmployeeSummary> getAllEmployees(){
+        return employeeRepository.findAllSummaries();
+    }
+
+    @Override
+    @Transactional(readOnly=true)
+    public EmployeeCursorPage getEmployeesAfter(Long after,int limit){
+        int pageSize=clampPageSize(limit);
+        // fetch one extra row to know whether a next page exists without a count query
+        PageRequest pageRequest=PageRequest.of(0, pageSize+1);
+        List<EmployeeSummary> employees=after==null ? employeeRepository.findFirstPage(pageRequest) : employeeRepository.findPageAfter(after, pageRequest);
+        Long nextCursor=null;
+        if(employees.size()>pageSize){
+            employees=employees.subList(0, pageSize);
+            nextCursor=employees.get(pageSize-1).getId();
+        }
+        return new EmployeeCursorPage(employees, nextCursor, pageSize);
+    }
+
+    @Override
+    @Transactional(readOnly=true)
+    public Page<EmployeeSummary> getEmployeesPage(int page,int size){
+        return employeeRepository.findAllSummaries(PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id")));
+    }
+
+    private static int clampPageSize(int size){
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    @Override
+    @Transactional(readOnly=true)
+    public void exportEmployees(Consumer<EmployeeSummary> consumer){
+        // projections are not managed, so the persistence context stays empty however many rows stream by
+        try(Stream<EmployeeSummary> employees=employeeRepository.streamAll()){
+            employees.forEach(consumer);
         }
-        return employeeRepository.save(employee);
     }
 
     @Override
-    public List<Employee> getAllEmployees(){
-        return employeeRepository.findAll();
+    public List<EmployeeSummary> searchEmployees(String query,int limit){
+        return searchIndex.search(query, limit);
     }
 
+    // the cache is only ever filled from the primary: a lagging replica could put back a row a write has just evicted.
+    // Not read-only for that reason, without a transaction here findById would run in the repository's read-only one
     @Override
+    @Cacheable(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#id",unless="#result==null")
+    @Transactional
     public Optional<Employee> getEmployeeById(Long id){
-        return employeeRepository.findById(id);
+        return idLookups.execute(id, ()->employeeRepository.findById(id));
+    }
+
+    @Override
+    @Transactional(readOnly=true)
+    public Optional<Employee> getEmployeeByEmail(String email){
+        return emailLookups.execute(email, ()->employeeRepository.findByEmail(email));
+    }
+
+    // not read-only on purpose: the rows it loads are cached, so they have to come from the primary
+    @Override
+    @Transactional
+    public EmployeeLookupResult getEmployeesByIds(List<Long> ids){
+        Set<Long> requestedIds=new LinkedHashSet<>(ids);
+        Map<Long,Employee> found=new HashMap<>();
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        List<Long> uncachedIds=new ArrayList<>();
+        for(Long id: requestedIds){
+            Employee cached=cache!=null ? cache.get(id, Employee.class) : null;
+            if(cached!=null){
+                found.put(id, cached);
+            }else{
+                uncachedIds.add(id);
+            }
+        }
+        for(int i=0; i<uncachedIds.size(); i+=IN_CLAUSE_CHUNK_SIZE){
+            for(Employee employee: employeeRepository.findAllById(uncachedIds.subList(i, Math.min(i+IN_CLAUSE_CHUNK_SIZE, uncachedIds.size())))){
+                found.put(employee.getId(), employee);
+                if(cache!=null){
+                    cache.put(employee.getId(), employee);
+                }
+            }
+        }
+        List<Employee> employees=new ArrayList<>(found.size());
+        List<Long> missingIds=new ArrayList<>();
+        for(Long id: requestedIds){
+            Employee employee=found.get(id);
+            if(employee!=null){
+                employees.add(employee);
+            }else{
+                missingIds.add(id);
+            }
+        }
+        return new EmployeeLookupResult(employees, missingIds);
     }
 
+    // evicted up front so a failed update drops the entry too, and again after commit; callers pass a new
+    // instance, never the cached one
     @Override
+    @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#updateEmployee.id",beforeInvocation=true)
+    @Transactional
     public Employee updateEmployee(Employee updateEmployee){
-        return employeeRepository.save(updateEmployee);
+        Employee savedEmployee;
+        try{
+            // flushed here so a version conflict surfaces before commit, where it can still be translated
+            savedEmployee=employeeRepository.saveAndFlush(updateEmployee);
+        }catch(ObjectOptimisticLockingFailureException e){
+            throw new PreconditionFailedException("Employee "+updateEmployee.getId()+" was modified concurrently", e);
+        }catch(DataIntegrityViolationException e){
+            throw translateDuplicateEmail(e, "Employee already exist with given email: "+updateEmployee.getEmail());
+        }
+        changeRepository.save(EmployeeChange.of(EmployeeChange.Type.UPDATED, savedEmployee));
+        afterCommit(()->searchIndex.put(savedEmployee));
+        evictAfterCommit(List.of(savedEmployee.getId()));
+        return savedEmployee;
+    }
+
+    // a patch without fields writes nothing: no outbox row, no eviction, the current version is returned
+    @Override
+    @Transactional
+    public boolean patchEmployee(Long id,Employee patch,Long expectedVersion){
+        if(patch.getFirstName()==null && patch.getLastName()==null && patch.getEmail()==null){
+            Optional<Long> version=employeeRepository.findVersionById(id);
+            if(version.isPresent() && expectedVersion!=null && !expectedVersion.equals(version.get())){
+                throw new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion);
+            }
+            return version.isPresent();
+        }
+        int updatedRows;
+        try{
+            updatedRows=employeeRepository.updateNonNullFields(id, patch, expectedVersion);
+        }catch(DataIntegrityViolationException e){
+            throw translateDuplicateEmail(e, "Employee already exist with given email: "+patch.getEmail());
+        }
+        if(updatedRows==0){
+            if(expectedVersion!=null && employeeRepository.existsById(id)){
+                throw new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion);
+            }
+            return false;
+        }
+        changeRepository.insertUpdatedById(id);
+        afterCommit(()->searchIndex.patch(id, patch));
+        evictAfterCommit(List.of(id));
+        return true;
     }
 
     @Override
-    public void deleteEmployee(Long id){
-        employeeRepository.deleteById(id);
+    @Transactional
+    public boolean deleteEmployee(Long id){
+        if(employeeRepository.deleteEmployeeById(id)>0){
+            changeRepository.save(EmployeeChange.deleted(id));
+            afterCommit(()->searchIndex.remove(id));
+            evictAfterCommit(List.of(id));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteEmployee(Long id,Long expectedVersion){
+        if(employeeRepository.deleteByIdAndVersion(id, expectedVersion)>0){
+            changeRepository.save(EmployeeChange.deleted(id));
+            afterCommit(()->searchIndex.remove(id));
+            evictAfterCommit(List.of(id));
+            return true;
+        }
+        if(employeeRepository.existsById(id)){
+            throw new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion);
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployees(List<Long> ids){
+        List<Long> distinctIds=new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted=0;
+        for(int i=0; i<distinctIds.size(); i+=IN_CLAUSE_CHUNK_SIZE){
+            List<Long> chunk=distinctIds.subList(i, Math.min(i+IN_CLAUSE_CHUNK_SIZE, distinctIds.size()));
+            employeeRepository.lockByIds(chunk);
+            changeRepository.insertDeletedByIds(chunk);
+            deleted+=employeeRepository.deleteEmployeesByIds(chunk);
+        }
+        afterCommit(()->searchIndex.removeAll(distinctIds));
+        evictAfterCommit(distinctIds);
+        return deleted;
+    }
+
+    @Override
+    @Transactional
+    public int deleteEmployeesByEmailDomain(String emailDomain){
+        String domain=EmailDomains.normalize(emailDomain);
+        employeeRepository.lockByEmailDomain(domain);
+        changeRepository.insertDeletedByEmailDomain(domain);
+        int deleted=employeeRepository.deleteEmployeesByEmailDomain(domain);
+        afterCommit(()->searchIndex.removeIf(employee->EmailDomains.matches(employee.getEmail(), domain)));
+        evictAfterCommit(null);
+        return deleted;
+    }
+
+    // cache entries are dropped once the transaction has committed: an eviction inside it can be undone by a
+    // concurrent reader putting back the row it loaded before the commit. null drops every entry
+    private void evictAfterCommit(List<Long> ids){
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if(cache==null){
+            return;
+        }
+        afterCommit(ids!=null ? ()->ids.forEach(cache::evict) : cache::clear);
+    }
+
+    // the search index only follows committed changes: a rolled back write (duplicate email, version conflict,
+    // failing outer transaction) must leave it as it was
+    private static void afterCommit(Runnable action){
+        if(TransactionSynchronizationManager.isSynchronizationActive()){
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization(){
+                @Override
+                public void afterCommit(){
+                    action.run();
+                }
+            });
+        }else{
+            action.run();
+        }
     }
 }
@@ -0,0 +1,217 @@
+package com.itbcafrica.springtest.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCreateStatus;
+import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.EmployeeWriteBehindService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind for creates: accepted employees wait in a bounded queue and a single flusher thread
+ * inserts them through {@link EmployeeService#saveNewEmployees} in group-committed batches, as soon as
+ * batch-size employees are queued or max-delay after the first one arrived. An email that is taken,
+ * or repeated within the batch, fails that create only. A full queue is reported to the caller
+ * instead of blocking it. Queued creates are kept in memory only and are lost if the process dies
+ * before they are flushed.
+ */
+@Service
+@Profile("!reactive")
+public class EmployeeWriteBehindServiceImpl implements EmployeeWriteBehindService{
+
+    private static final Logger log=LoggerFactory.getLogger(EmployeeWriteBehindServiceImpl.class);
+
+    static final int STATUSES_PER_QUEUE_SLOT=10;
+
+    private EmployeeService employeeService;
+
+    private final BlockingQueue<PendingCreate> queue;
+
+    // queued and in-flight creates, at most queue capacity plus one batch, never evicted
+    private final Map<String,EmployeeCreateStatus> pending=new ConcurrentHashMap<>();
+
+    // outcomes kept for status-ttl, bounded to STATUSES_PER_QUEUE_SLOT times the queue capacity
+    private final Cache<String,EmployeeCreateStatus> statuses;
+
+    private int batchSize;
+
+    private long maxDelayNanos;
+
+    private final Thread flusher=new Thread(this::runFlusher, "employee-write-behind");
+
+    private volatile boolean running=true;
+
+    public EmployeeWriteBehindServiceImpl(EmployeeService employeeService,
+                                          @Value("${app.write-behind.queue-capacity:10000}") int queueCapacity,
+                                          @Value("${app.write-behind.batch-size:500}") int batchSize,
+                                          @Value("${app.write-behind.max-delay:10ms}") Duration maxDelay,
+                                          @Value("${app.write-behind.status-ttl:10m}") Duration statusTtl){
+        this.employeeService=employeeService;
+        this.queue=new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses=Caffeine.newBuilder().maximumSize((long) queueCapacity*STATUSES_PER_QUEUE_SLOT).expireAfterWrite(statusTtl).build();
+        this.batchSize=batchSize;
+        this.maxDelayNanos=maxDelay.toNanos();
+    }
+
+    @PostConstruct
+    public void start(){
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public Optional<EmployeeCreateStatus> submit(Employee employee){
+        EmployeeCreateStatus status=EmployeeCreateStatus.pending(UUID.randomUUID().toString());
+        pending.put(status.getTicket(), status);
+        if(!queue.offer(new PendingCreate(status.getTicket(), employee))){
+            pending.remove(status.getTicket());
+            return Optional.empty();
+        }
+        return Optional.of(status);
+    }
+
+    @Override
+    public Optional<EmployeeCreateStatus> getStatus(String ticket){
+        EmployeeCreateStatus status=pending.get(ticket);
+        return Optional.ofNullable(status!=null ? status : statuses.getIfPresent(ticket));
+    }
+
+    @Override
+    public synchronized int flush(){
+        int flushed=0;
+        List<PendingCreate> batch=new ArrayList<>(batchSize);
+        while(queue.drainTo(batch, batchSize)>0){
+            write(batch);
+            flushed+=batch.size();
+            batch.clear();
+        }
+        return flushed;
+    }
+
+    private void runFlusher(){
+        List<PendingCreate> batch=new ArrayList<>(batchSize);
+        while(running){
+            try{
+                PendingCreate first=queue.poll(100, TimeUnit.MILLISECONDS);
+                if(first==null){
+                    continue;
+                }
+                batch.add(first);
+                // group commit: wait up to max-delay for the batch to fill
+                long deadline=System.nanoTime()+maxDelayNanos;
+                while(batch.size()<batchSize){
+                    queue.drainTo(batch, batchSize-batch.size());
+                    long remaining=deadline-System.nanoTime();
+                    if(batch.size()>=batchSize || remaining<=0){
+                        break;
+                    }
+                    PendingCreate next=queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if(next!=null){
+                        batch.add(next);
+                    }
+                }
+                synchronized(this){
+                    write(batch);
+                }
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return;
+            }catch(RuntimeException e){
+                log.error("Write-behind flush of {} employees failed", batch.size(), e);
+            }finally{
+                batch.clear();
+            }
+        }
+    }
+
+    // one existing-email query and one batched insert: taken emails fail their create, the others go in together
+    private void write(List<PendingCreate> batch){
+        Map<String,PendingCreate> creates=new LinkedHashMap<>();
+        List<Employee> employees=new ArrayList<>(batch.size());
+        for(PendingCreate create: batch){
+            if(creates.putIfAbsent(create.employee.getEmail(), create)!=null){
+                failed(create, "Employee already exist with given email: "+create.employee.getEmail());
+            }else{
+                employees.add(create.employee);
+            }
+        }
+        try{
+            for(Employee savedEmployee: employeeService.saveNewEmployees(employees)){
+                created(creates.remove(savedEmployee.getEmail()), savedEmployee);
+            }
+            // left out by saveNewEmployees
+            creates.values().forEach(create->failed(create, "Employee already exist with given email: "+create.employee.getEmail()));
+        }catch(RuntimeException e){
+            // an email taken between the check and the insert, or an invalid row, rolls back the whole batch:
+            // retry row by row so only that one fails
+            for(PendingCreate create: creates.values()){
+                create.employee.setId(null);
+                create.employee.setVersion(null);
+                try{
+                    created(create, employeeService.saveEmployee(create.employee));
+                }catch(ResourceAlreadyExistsException failure){
+                    failed(create, failure.getMessage());
+                }catch(RuntimeException failure){
+                    log.warn("Write-behind create of {} failed", create.employee.getEmail(), failure);
+                    failed(create, failure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void created(PendingCreate create,Employee savedEmployee){
+        complete(new EmployeeCreateStatus(create.ticket, EmployeeCreateStatus.State.CREATED, savedEmployee.getId(), null));
+    }
+
+    private void failed(PendingCreate create,String message){
+        complete(new EmployeeCreateStatus(create.ticket, EmployeeCreateStatus.State.FAILED, null, message));
+    }
+
+    // the outcome is stored before the pending entry goes, so a lookup in between finds one of them
+    private void complete(EmployeeCreateStatus status){
+        statuses.put(status.getTicket(), status);
+        pending.remove(status.getTicket());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException{
+        running=false;
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        // whatever is still queued is written before the data source goes away
+        flush();
+    }
+
+    private static final class PendingCreate{
+
+        private final String ticket;
+
+        private final Employee employee;
+
+        private PendingCreate(String ticket,Employee employee){
+            this.ticket=ticket;
+            this.employee=employee;
+        }
+
+    }
+
+}
@@ -0,0 +1,184 @@
+package com.itbcafrica.springtest.service.impl;
+
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeRow;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.ReactiveEmployeeRepository;
+import com.itbcafrica.springtest.service.ReactiveEmployeeService;
+import com.itbcafrica.springtest.service.support.EmailDomains;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeServiceImpl implements ReactiveEmployeeService{
+
+    private ReactiveEmployeeRepository employeeRepository;
+
+    private TransactionalOperator transactionalOperator;
+
+    public ReactiveEmployeeServiceImpl(ReactiveEmployeeRepository employeeRepository,ReactiveTransactionManager transactionManager){
+        this.employeeRepository=employeeRepository;
+        this.transactionalOperator=TransactionalOperator.create(transactionManager);
+    }
+
+    @Override
+    public Mono<Employee> saveEmployee(Employee employee){
+        return insert(employee)
+                .onErrorMap(DataIntegrityViolationException.class, e->new ResourceAlreadyExistsException("Employee already exist with given email: "+employee.getEmail()));
+    }
+
+    @Override
+    public Flux<Employee> saveEmployees(List<Employee> employees){
+        return Flux.fromIterable(employees)
+                .concatMap(this::insert)
+                .as(transactionalOperator::transactional)
+                .onErrorMap(DataIntegrityViolationException.class, e->new ResourceAlreadyExistsException("Employee already exist with one of the given emails"));
+    }
+
+    // ids come from the sequence shared with the JPA stack; the servlet side uses it as a pooled
+    // hi value, so each value taken here is a whole block nobody else will hand out
+    private Mono<Employee> insert(Employee employee){
+        EmployeeRow row=EmployeeRow.from(employee);
+        row.setVersion(null);
+        return employeeRepository.nextId()
+                .flatMap(id->{
+                    row.setId(id);
+                    return employeeRepository.save(row);
+                })
+                .map(EmployeeRow::toEmployee);
+    }
+
+    @Override
+    public Flux<Employee> getAllEmployees(){
+        return employeeRepository.streamAll().map(EmployeeRow::toEmployee);
+    }
+
+    @Override
+    public Mono<EmployeeCursorPage> getEmployeesAfter(Long after,int limit){
+        int pageSize=Math.min(Math.max(limit, 1), EmployeeServiceImpl.MAX_PAGE_SIZE);
+        // fetch one extra row to know whether a next page exists without a count query
+        return employeeRepository.findPageAfter(after==null ? 0L : after, pageSize+1)
+                .map(EmployeeRow::toSummary)
+                .collectList()
+                .map(employees->{
+                    if(employees.size()>pageSize){
+                        List<EmployeeSummary> content=employees.subList(0, pageSize);
+                        return new EmployeeCursorPage(content, content.get(pageSize-1).getId(), pageSize);
+                    }
+                    return new EmployeeCursorPage(employees, null, pageSize);
+                });
+    }
+
+    @Override
+    public Mono<Page<EmployeeSummary>> getEmployeesPage(int page,int size){
+        PageRequest pageRequest=PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), EmployeeServiceImpl.MAX_PAGE_SIZE));
+        return Mono.zip(employeeRepository.findPage(pageRequest.getOffset(), pageRequest.getPageSize()).map(EmployeeRow::toSummary).collectList(), employeeRepository.count())
+                .map(result->new PageImpl<>(result.getT1(), pageRequest, result.getT2()));
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeById(Long id){
+        return employeeRepository.findById(id).map(EmployeeRow::toEmployee);
+    }
+
+    @Override
+    public Mono<Employee> getEmployeeByEmail(String email){
+        return employeeRepository.findByEmail(email).map(EmployeeRow::toEmployee);
+    }
+
+    @Override
+    public Mono<EmployeeLookupResult> getEmployeesByIds(List<Long> ids){
+        List<Long> requestedIds=new ArrayList<>(new LinkedHashSet<>(ids));
+        return Flux.fromIterable(requestedIds)
+                .buffer(EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE)
+                .concatMap(employeeRepository::findAllById)
+                .collectMap(EmployeeRow::getId, EmployeeRow::toEmployee)
+                .map(found->{
+                    List<Employee> employees=new ArrayList<>(found.size());
+                    List<Long> missingIds=new ArrayList<>();
+                    for(Long id: requestedIds){
+                        Employee employee=found.get(id);
+                        if(employee!=null){
+                            employees.add(employee);
+                        }else{
+                            missingIds.add(id);
+                        }
+                    }
+                    return new EmployeeLookupResult(employees, missingIds);
+                });
+    }
+
+    @Override
+    public Mono<Employee> updateEmployee(Employee updateEmployee){
+        return employeeRepository.save(EmployeeRow.from(updateEmployee))
+                .map(EmployeeRow::toEmployee)
+                .onErrorMap(OptimisticLockingFailureException.class, e->new PreconditionFailedException("Employee "+updateEmployee.getId()+" was modified concurrently", e))
+                .onErrorMap(DataIntegrityViolationException.class, e->new ResourceAlreadyExistsException("Employee already exist with given email: "+updateEmployee.getEmail()));
+    }
+
+    @Override
+    public Mono<Boolean> patchEmployee(Long id,Employee patch,Long expectedVersion){
+        Mono<Integer> update;
+        if(patch.getFirstName()==null && patch.getLastName()==null && patch.getEmail()==null){
+            // nothing to write, still report whether the row exists in the expected version
+            update=employeeRepository.findById(id).map(row->expectedVersion==null || expectedVersion.equals(row.getVersion()) ? 1 : 0).defaultIfEmpty(0);
+        }else if(expectedVersion==null){
+            update=employeeRepository.updateNonNullFields(id, patch.getFirstName(), patch.getLastName(), patch.getEmail());
+        }else{
+            update=employeeRepository.updateNonNullFields(id, patch.getFirstName(), patch.getLastName(), patch.getEmail(), expectedVersion);
+        }
+        return update
+                .onErrorMap(DataIntegrityViolationException.class, e->new ResourceAlreadyExistsException("Employee already exist with given email: "+patch.getEmail()))
+                .flatMap(updatedRows->updatedRows==0 && expectedVersion!=null ? failIfExists(id, expectedVersion) : Mono.just(updatedRows>0));
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(Long id){
+        return employeeRepository.deleteEmployeeById(id).map(deletedRows->deletedRows>0);
+    }
+
+    @Override
+    public Mono<Boolean> deleteEmployee(Long id,Long expectedVersion){
+        return employeeRepository.deleteByIdAndVersion(id, expectedVersion)
+                .flatMap(deletedRows->deletedRows>0 ? Mono.just(true) : failIfExists(id, expectedVersion));
+    }
+
+    // nothing matched id and version: a precondition failure when the row exists, not found otherwise
+    private Mono<Boolean> failIfExists(Long id,Long expectedVersion){
+        return employeeRepository.existsById(id)
+                .flatMap(exists->exists ? Mono.error(new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion)) : Mono.just(false));
+    }
+
+    @Override
+    public Mono<Integer> deleteEmployees(List<Long> ids){
+        return Flux.fromIterable(new LinkedHashSet<>(ids))
+                .buffer(EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE)
+                .concatMap(employeeRepository::deleteEmployeesByIds)
+                .reduce(0, Integer::sum)
+                .as(transactionalOperator::transactional);
+    }
+
+    @Override
+    public Mono<Integer> deleteEmployeesByEmailDomain(String emailDomain){
+        return Mono.fromCallable(()->EmailDomains.normalize(emailDomain))
+                .flatMap(employeeRepository::deleteEmployeesByEmailDomain);
+    }
+}
@@ -0,0 +1,274 @@
+package com.itbcafrica.springtest.service.impl;
+
+import com.itbcafrica.springtest.config.CacheConfig;
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.ShardedEmployeeRepository;
+import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.support.EmailDomains;
+import com.itbcafrica.springtest.service.support.EmployeeSearchIndex;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * EmployeeService over {@link ShardedEmployeeRepository}, registered by ShardingConfig in place of
+ * the JPA implementation. Point lookups and writes go to one shard, lists are scatter-gather.
+ * Writes are not recorded in the change feed outbox, which lives in the primary database.
+ */
+public class ShardedEmployeeServiceImpl implements EmployeeService{
+
+    static final int EXPORT_PAGE_SIZE=1000;
+
+    private ShardedEmployeeRepository employeeRepository;
+
+    private CacheManager cacheManager;
+
+    private EmployeeSearchIndex searchIndex;
+
+    public ShardedEmployeeServiceImpl(ShardedEmployeeRepository employeeRepository,CacheManager cacheManager,EmployeeSearchIndex searchIndex){
+        this.employeeRepository=employeeRepository;
+        this.cacheManager=cacheManager;
+        this.searchIndex=searchIndex;
+    }
+
+    // the search index loads itself from the primary database, the shards are added here
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexShards(){
+        employeeRepository.forEach(searchIndex::putSummary, EXPORT_PAGE_SIZE);
+    }
+
+    @Override
+    public Employee saveEmployee(Employee employee){
+        Employee savedEmployee=employeeRepository.save(employee);
+        searchIndex.put(savedEmployee);
+        return savedEmployee;
+    }
+
+    @Override
+    public List<Employee> saveEmployees(List<Employee> employees){
+        Set<String> emails=new HashSet<>();
+        Set<String> duplicates=new LinkedHashSet<>();
+        for(Employee employee: employees){
+            if(!emails.add(employee.getEmail())){
+                duplicates.add(employee.getEmail());
+            }
+        }
+        duplicates.addAll(employeeRepository.findExistingEmails(emails));
+        if(!duplicates.isEmpty()){
+            throw new ResourceAlreadyExistsException("Employee already exist with given email: "+String.join(", ", duplicates));
+        }
+        List<Employee> savedEmployees=employeeRepository.saveAll(employees);
+        searchIndex.putAll(savedEmployees);
+        return savedEmployees;
+    }
+
+    @Override
+    public List<Employee> saveNewEmployees(List<Employee> employees){
+        Set<String> existingEmails=new HashSet<>(employeeRepository.findExistingEmails(employees.stream().map(Employee::getEmail).collect(Collectors.toList())));
+        List<Employee> newEmployees=employees.stream().filter(employee->!existingEmails.contains(employee.getEmail())).collect(Collectors.toList());
+        if(newEmployees.isEmpty()){
+            return newEmployees;
+        }
+        List<Employee> savedEmployees=employeeRepository.saveAll(newEmployees);
+        searchIndex.putAll(savedEmployees);
+        return savedEmployees;
+    }
+
+    @Override
+    public List<EmployeeSummary> getAllEmployees(){
+        return employeeRepository.findAllSummaries();
+    }
+
+    @Override
+    public EmployeeCursorPage getEmployeesAfter(Long after,int limit){
+        int pageSize=clampPageSize(limit);
+        List<EmployeeSummary> employees=employeeRepository.findPageAfter(after, pageSize+1);
+        Long nextCursor=null;
+        if(employees.size()>pageSize){
+            employees=employees.subList(0, pageSize);
+            nextCursor=employees.get(pageSize-1).getId();
+        }
+        return new EmployeeCursorPage(employees, nextCursor, pageSize);
+    }
+
+    @Override
+    public Page<EmployeeSummary> getEmployeesPage(int page,int size){
+        PageRequest pageRequest=PageRequest.of(Math.max(page, 0), clampPageSize(size), Sort.by("id"));
+        return new PageImpl<>(employeeRepository.findPage(pageRequest.getOffset(), pageRequest.getPageSize()), pageRequest, employeeRepository.count());
+    }
+
+    private static int clampPageSize(int size){
+        return Math.min(Math.max(size, 1), EmployeeServiceImpl.MAX_PAGE_SIZE);
+    }
+
+    @Override
+    public void exportEmployees(Consumer<EmployeeSummary> consumer){
+        employeeRepository.forEach(consumer, EXPORT_PAGE_SIZE);
+    }
+
+    @Override
+    public List<EmployeeSummary> searchEmployees(String query,int limit){
+        return searchIndex.search(query, limit);
+    }
+
+    @Override
+    @Cacheable(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#id",unless="#result==null")
+    public Optional<Employee> getEmployeeById(Long id){
+        return employeeRepository.findById(id);
+    }
+
+    @Override
+    public Optional<Employee> getEmployeeByEmail(String email){
+        return employeeRepository.findByEmail(email);
+    }
+
+    @Override
+    public EmployeeLookupResult getEmployeesByIds(List<Long> ids){
+        Set<Long> requestedIds=new LinkedHashSet<>(ids);
+        Map<Long,Employee> found=new HashMap<>();
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        List<Long> uncachedIds=new ArrayList<>();
+        for(Long id: requestedIds){
+            Employee cached=cache!=null ? cache.get(id, Employee.class) : null;
+            if(cached!=null){
+                found.put(id, cached);
+            }else{
+                uncachedIds.add(id);
+            }
+        }
+        for(int i=0; i<uncachedIds.size(); i+=EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE){
+            for(Employee employee: employeeRepository.findAllById(uncachedIds.subList(i, Math.min(i+EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE, uncachedIds.size())))){
+                found.put(employee.getId(), employee);
+                if(cache!=null){
+                    cache.put(employee.getId(), employee);
+                }
+            }
+        }
+        List<Employee> employees=new ArrayList<>(found.size());
+        List<Long> missingIds=new ArrayList<>();
+        for(Long id: requestedIds){
+            Employee employee=found.get(id);
+            if(employee!=null){
+                employees.add(employee);
+            }else{
+                missingIds.add(id);
+            }
+        }
+        return new EmployeeLookupResult(employees, missingIds);
+    }
+
+    // evicted up front so a failed update drops the entry too, and again once the shard has committed, which
+    // drops a row a concurrent reader put back meanwhile; callers pass a new instance, never the cached one
+    @Override
+    @Caching(evict={
+            @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#updateEmployee.id",beforeInvocation=true),
+            @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#updateEmployee.id")})
+    public Employee updateEmployee(Employee updateEmployee){
+        Employee savedEmployee=employeeRepository.update(updateEmployee);
+        searchIndex.put(savedEmployee);
+        return savedEmployee;
+    }
+
+    // PATCH reads the row first here: the merged fields have to go through the email directory
+    @Override
+    @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#id")
+    public boolean patchEmployee(Long id,Employee patch,Long expectedVersion){
+        Optional<Employee> current=employeeRepository.findById(id);
+        if(current.isEmpty()){
+            return false;
+        }
+        Employee employee=current.get();
+        if(patch.getFirstName()==null && patch.getLastName()==null && patch.getEmail()==null){
+            if(expectedVersion!=null && !expectedVersion.equals(employee.getVersion())){
+                throw new PreconditionFailedException("Employee "+id+" is no longer at version "+expectedVersion);
+            }
+            return true;
+        }
+        if(expectedVersion!=null){
+            employee.setVersion(expectedVersion);
+        }
+        if(patch.getFirstName()!=null){
+            employee.setFirstName(patch.getFirstName());
+        }
+        if(patch.getLastName()!=null){
+            employee.setLastName(patch.getLastName());
+        }
+        if(patch.getEmail()!=null){
+            employee.setEmail(patch.getEmail());
+        }
+        Employee savedEmployee=employeeRepository.update(employee);
+        searchIndex.put(savedEmployee);
+        return true;
+    }
+
+    @Override
+    @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#id")
+    public boolean deleteEmployee(Long id){
+        if(employeeRepository.deleteById(id, null)){
+            searchIndex.remove(id);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,key="#id")
+    public boolean deleteEmployee(Long id,Long expectedVersion){
+        if(employeeRepository.deleteById(id, expectedVersion)){
+            searchIndex.remove(id);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int deleteEmployees(List<Long> ids){
+        List<Long> distinctIds=new ArrayList<>(new LinkedHashSet<>(ids));
+        int deleted=0;
+        for(int i=0; i<distinctIds.size(); i+=EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE){
+            deleted+=employeeRepository.deleteAllById(distinctIds.subList(i, Math.min(i+EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE, distinctIds.size())));
+        }
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if(cache!=null){
+            distinctIds.forEach(cache::evict);
+        }
+        searchIndex.removeAll(distinctIds);
+        return deleted;
+    }
+
+    @Override
+    @CacheEvict(cacheNames=CacheConfig.EMPLOYEES_CACHE,allEntries=true)
+    public int deleteEmployeesByEmailDomain(String emailDomain){
+        List<Long> ids=employeeRepository.findIdsByEmailDomain(EmailDomains.normalize(emailDomain));
+        int deleted=0;
+        for(int i=0; i<ids.size(); i+=EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE){
+            deleted+=employeeRepository.deleteAllById(ids.subList(i, Math.min(i+EmployeeServiceImpl.IN_CLAUSE_CHUNK_SIZE, ids.size())));
+        }
+        searchIndex.removeAll(ids);
+        return deleted;
+    }
+}
@@ -0,0 +1,134 @@
+package com.itbcafrica.springtest.service.support;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounds the number of calls in flight with a limit adjusted by AIMD: every call completing within
+ * the latency threshold adds 1/limit (about one more slot per round of calls), a slower or failed call
+ * cuts the limit by the backoff ratio. The threshold follows the observed latency: tolerance times the
+ * fastest call since the start of the previous window, but never below the floor, so queueing in the database shows
+ * up as rising latency and shrinks the limit before threads pile up. Callers over the limit wait at
+ * most maxWait, and no more of them wait than there are calls in flight.
+ */
+public class AdaptiveConcurrencyLimiter{
+
+    static final double BACKOFF_RATIO=0.9;
+
+    // samples per window of the baseline latency
+    static final int WINDOW_SIZE=500;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double latencyTolerance;
+
+    private final long latencyFloorNanos;
+
+    private final ReentrantLock lock=new ReentrantLock();
+
+    private final Condition slotFreed=lock.newCondition();
+
+    private double limit;
+
+    private int inFlight;
+
+    private int waiting;
+
+    private long baselineNanos=Long.MAX_VALUE;
+
+    private long windowMinNanos=Long.MAX_VALUE;
+
+    private int windowSamples;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit,int minLimit,int maxLimit,double latencyTolerance,Duration latencyFloor){
+        this.minLimit=minLimit;
+        this.maxLimit=maxLimit;
+        this.limit=Math.min(Math.max(initialLimit, minLimit), maxLimit);
+        this.latencyTolerance=latencyTolerance;
+        this.latencyFloorNanos=latencyFloor.toNanos();
+    }
+
+    // true when the caller got a slot and has to release it, false when it should be shed
+    public boolean acquire(Duration maxWait){
+        lock.lock();
+        try{
+            if(inFlight<(int) limit){
+                inFlight++;
+                return true;
+            }
+            if(waiting>=inFlight || maxWait.isZero()){
+                return false;
+            }
+            waiting++;
+            try{
+                long remaining=maxWait.toNanos();
+                while(inFlight>=(int) limit){
+                    if(remaining<=0){
+                        return false;
+                    }
+                    remaining=slotFreed.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                return false;
+            }finally{
+                waiting--;
+            }
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public void release(long latencyNanos,boolean failed){
+        lock.lock();
+        try{
+            inFlight--;
+            long threshold=Math.max(latencyFloorNanos, (long) (Math.min(baselineNanos, latencyNanos)*latencyTolerance));
+            sample(latencyNanos);
+            if(failed || latencyNanos>threshold){
+                limit=Math.max(minLimit, limit*BACKOFF_RATIO);
+            }else if(inFlight+1>=(int) limit/2){
+                // only grow while the limit is actually being used
+                limit=Math.min(maxLimit, limit+1/limit);
+            }
+            slotFreed.signal();
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    // the baseline is the fastest call seen since the start of the previous window
+    private void sample(long latencyNanos){
+        windowMinNanos=Math.min(windowMinNanos, latencyNanos);
+        baselineNanos=Math.min(baselineNanos, latencyNanos);
+        if(++windowSamples>=WINDOW_SIZE){
+            baselineNanos=windowMinNanos;
+            windowMinNanos=Long.MAX_VALUE;
+            windowSamples=0;
+        }
+    }
+
+    public int getLimit(){
+        lock.lock();
+        try{
+            return (int) limit;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight(){
+        lock.lock();
+        try{
+            return inFlight;
+        }finally{
+            lock.unlock();
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.itbcafrica.springtest.service.support;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 style CSV one record at a time: comma separated, fields optionally quoted with
+ * double quotes, "" for a literal quote, line breaks allowed inside quotes. Only the current record
+ * is held in memory, and at most maxRecordLength characters of it: a longer record or field, such as
+ * the rest of the file after an unterminated quote, is read to its end without being kept and
+ * reported with {@link RecordTooLongException}; the next call continues with the following record.
+ */
+public class CsvReader{
+
+    private final BufferedReader reader;
+
+    private final int maxFieldLength;
+
+    private final int maxRecordLength;
+
+    public CsvReader(Reader reader,int maxFieldLength,int maxRecordLength){
+        this.reader=reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.maxFieldLength=maxFieldLength;
+        this.maxRecordLength=maxRecordLength;
+    }
+
+    // the fields of the next record, null at the end of the input; blank lines are skipped
+    public List<String> readRecord() throws IOException{
+        List<String> fields=new ArrayList<>();
+        StringBuilder field=new StringBuilder();
+        boolean quoted=false;
+        boolean empty=true;
+        // characters of the record so far, separators included
+        int length=0;
+        boolean tooLong=false;
+        int c;
+        while((c=reader.read())!=-1){
+            char appended=0;
+            if(quoted){
+                if(c=='"'){
+                    reader.mark(1);
+                    if(reader.read()=='"'){
+                        appended='"';
+                    }else{
+                        reader.reset();
+                        quoted=false;
+                    }
+                }else{
+                    appended=(char) c;
+                }
+            }else if(c=='"'){
+                quoted=true;
+                empty=false;
+            }else if(c==','){
+                fields.add(field.toString());
+                field.setLength(0);
+                empty=false;
+            }else if(c=='\n'){
+                if(!empty){
+                    break;
+                }
+            }else if(c!='\r'){
+                appended=(char) c;
+                empty=false;
+            }
+            if((!empty && ++length>maxRecordLength) || (appended!=0 && field.length()>=maxFieldLength)){
+                tooLong=true;
+            }
+            if(tooLong){
+                // keep scanning for the end of the record, but nothing more is stored
+                fields.clear();
+                field.setLength(0);
+            }else if(appended!=0){
+                field.append(appended);
+            }
+        }
+        if(empty){
+            return null;
+        }
+        if(tooLong){
+            throw new RecordTooLongException("Record longer than "+maxRecordLength+" characters or field longer than "+maxFieldLength+" characters");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static class RecordTooLongException extends IOException{
+
+        public RecordTooLongException(String message){
+            super(message);
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.itbcafrica.springtest.exception.InvalidRequestException;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Email domains taken from requests: validated up front and compared exactly, ignoring case,
+ * so that no value can widen a bulk statement (a LIKE pattern would read % and _ as wildcards).
+ */
+public final class EmailDomains{
+
+    private static final Pattern DOMAIN=Pattern.compile("[a-z0-9](?:[a-z0-9-]*[a-z0-9])?(?:\\.[a-z0-9](?:[a-z0-9-]*[a-z0-9])?)*");
+
+    private EmailDomains(){
+    }
+
+    // lower-cased domain, the queries compare against lower(domain part of email)
+    public static String normalize(String emailDomain){
+        String domain=emailDomain==null ? "" : emailDomain.trim().toLowerCase(Locale.ROOT);
+        if(domain.isEmpty() || domain.length()>253 || !DOMAIN.matcher(domain).matches()){
+            throw new InvalidRequestException("Invalid email domain: "+emailDomain);
+        }
+        return domain;
+    }
+
+    // same rule as the queries: the part after the first @ equals the normalized domain
+    public static boolean matches(String email,String normalizedDomain){
+        if(email==null){
+            return false;
+        }
+        int at=email.indexOf('@');
+        return at>=0 && email.substring(at+1).toLowerCase(Locale.ROOT).equals(normalizedDomain);
+    }
+
+}
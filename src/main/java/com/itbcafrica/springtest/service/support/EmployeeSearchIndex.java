@@ -0,0 +1,197 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.EmployeeRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead over first name, last name and email. Every word of those fields is a key of a sorted
+ * map, so a prefix lookup is a range scan of the matching keys instead of a LIKE over the table.
+ * Built from the repository at startup and kept current by EmployeeService; writes made by other
+ * instances or straight through the repository are not seen. The build is the first application
+ * runner, so the index is complete before EmployeeWarmup searches it and before readiness.
+ */
+@Component
+public class EmployeeSearchIndex implements ApplicationRunner,Ordered{
+
+    public static final int MAX_RESULTS=100;
+
+    private final EmployeeRepository employeeRepository;
+
+    // token -> ids of the employees having a word starting with that token
+    private final NavigableMap<String,Set<Long>> tokens=new ConcurrentSkipListMap<>();
+
+    private final Map<Long,Entry> entries=new ConcurrentHashMap<>();
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository){
+        this.employeeRepository=employeeRepository;
+    }
+
+    // streamAll is a cursor, it needs the transaction
+    @Override
+    @Transactional(readOnly=true)
+    public void run(ApplicationArguments args){
+        try(Stream<EmployeeSummary> employees=employeeRepository.streamAll()){
+            employees.forEach(this::index);
+        }
+    }
+
+    @Override
+    public int getOrder(){
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    // employees whose words start with every term of the query, at most limit of them
+    public List<EmployeeSummary> search(String query,int limit){
+        List<String> terms=tokenize(query);
+        int maxResults=Math.min(Math.max(limit, 1), MAX_RESULTS);
+        List<EmployeeSummary> results=new ArrayList<>(Math.min(maxResults, 16));
+        if(terms.isEmpty()){
+            return results;
+        }
+        // the longest term has the narrowest key range, the other terms are checked per candidate
+        String driver=terms.stream().max((a,b)->Integer.compare(a.length(), b.length())).get();
+        Set<Long> seen=new HashSet<>();
+        for(Set<Long> ids: tokens.subMap(driver, true, driver+Character.MAX_VALUE, true).values()){
+            for(Long id: ids){
+                Entry entry=entries.get(id);
+                if(seen.add(id) && entry!=null && entry.matchesAll(terms)){
+                    results.add(entry.summary);
+                    if(results.size()>=maxResults){
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    // changes apply right away: callers inside a transaction make them once it has committed
+
+    public void put(Employee employee){
+        index(EmployeeSummary.of(employee));
+    }
+
+    public void putSummary(EmployeeSummary summary){
+        index(summary);
+    }
+
+    public void putAll(Collection<Employee> employees){
+        employees.forEach(this::put);
+    }
+
+    // PATCH only sends the changed fields, the rest comes from the indexed entry
+    public void patch(Long id,Employee patch){
+        Entry entry=entries.get(id);
+        if(entry!=null){
+            EmployeeSummary current=entry.summary;
+            index(new EmployeeSummary(id,
+                    patch.getFirstName()!=null ? patch.getFirstName() : current.getFirstName(),
+                    patch.getLastName()!=null ? patch.getLastName() : current.getLastName(),
+                    patch.getEmail()!=null ? patch.getEmail() : current.getEmail(),
+                    current.getVersion()!=null ? current.getVersion()+1 : null));
+        }
+    }
+
+    public void remove(Long id){
+        unindex(id);
+    }
+
+    public void removeAll(Collection<Long> ids){
+        ids.forEach(this::unindex);
+    }
+
+    public void removeIf(Predicate<EmployeeSummary> filter){
+        entries.values().stream()
+                .filter(entry->filter.test(entry.summary))
+                .map(entry->entry.summary.getId())
+                .forEach(this::unindex);
+    }
+
+    public int size(){
+        return entries.size();
+    }
+
+    // writers are serialized, readers never block
+    private synchronized void index(EmployeeSummary summary){
+        unindex(summary.getId());
+        Entry entry=new Entry(summary);
+        entries.put(summary.getId(), entry);
+        for(String token: entry.tokens){
+            tokens.computeIfAbsent(token, key->ConcurrentHashMap.newKeySet()).add(summary.getId());
+        }
+    }
+
+    private synchronized void unindex(Long id){
+        Entry entry=entries.remove(id);
+        if(entry==null){
+            return;
+        }
+        for(String token: entry.tokens){
+            Set<Long> ids=tokens.get(token);
+            if(ids!=null){
+                ids.remove(id);
+                if(ids.isEmpty()){
+                    tokens.remove(token);
+                }
+            }
+        }
+    }
+
+    // lower-cased words of the text, split on anything that is not a letter or a digit
+    static List<String> tokenize(String text){
+        List<String> words=new ArrayList<>();
+        if(text==null){
+            return words;
+        }
+        for(String word: text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")){
+            if(!word.isEmpty()){
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static final class Entry{
+
+        private final EmployeeSummary summary;
+
+        private final Set<String> tokens=new HashSet<>();
+
+        private Entry(EmployeeSummary summary){
+            this.summary=summary;
+            tokens.addAll(tokenize(summary.getFirstName()));
+            tokens.addAll(tokenize(summary.getLastName()));
+            tokens.addAll(tokenize(summary.getEmail()));
+        }
+
+        private boolean matchesAll(List<String> terms){
+            for(String term: terms){
+                if(tokens.stream().noneMatch(token->token.startsWith(term))){
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.itbcafrica.springtest.config.CacheConfig;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Warms the instance up before it reports ready (runners complete before ApplicationReadyEvent, which
+ * switches readiness to ACCEPTING_TRAFFIC). The employees that were hottest in the cache when the
+ * previous instance stopped are loaded back into it in a few set-based queries, then real requests
+ * are sent to the local server so the controller, converter and service paths are JIT-compiled
+ * before the first client hits them. It runs after the EmployeeSearchIndex runner, so the search
+ * request finds the employees.
+ */
+@Component
+@Profile("!reactive")
+@ConditionalOnProperty(value="app.warmup.enabled",matchIfMissing=true)
+public class EmployeeWarmup implements ApplicationRunner{
+
+    private static final Logger log=LoggerFactory.getLogger(EmployeeWarmup.class);
+
+    private EmployeeService employeeService;
+
+    private CacheManager cacheManager;
+
+    private Environment environment;
+
+    private Path snapshotFile;
+
+    private int maxIds;
+
+    private int requests;
+
+    private Duration timeout;
+
+    public EmployeeWarmup(EmployeeService employeeService,CacheManager cacheManager,Environment environment,
+                          @Value("${app.warmup.snapshot-file:${java.io.tmpdir}/${spring.application.name:employees}-${server.port:8080}-hot-ids.bin}") Path snapshotFile,
+                          @Value("${app.warmup.max-ids:1000}") int maxIds,
+                          @Value("${app.warmup.requests:200}") int requests,
+                          @Value("${app.warmup.timeout:30s}") Duration timeout){
+        this.employeeService=employeeService;
+        this.cacheManager=cacheManager;
+        this.environment=environment;
+        this.snapshotFile=snapshotFile;
+        this.maxIds=maxIds;
+        this.requests=requests;
+        this.timeout=timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args){
+        long start=System.nanoTime();
+        List<Long> ids=HotEmployeeSnapshot.read(snapshotFile);
+        ids=ids.subList(0, Math.min(ids.size(), maxIds));
+        // getEmployeesByIds puts what it loads into the employees cache
+        EmployeeLookupResult loaded=employeeService.getEmployeesByIds(ids);
+        int sent=exerciseEndpoints(loaded.getEmployees().isEmpty() ? List.of() : List.of(loaded.getEmployees().get(0).getId()));
+        log.info("Warm-up cached {} of {} snapshot employees and sent {} requests in {} ms",
+                loaded.getEmployees().size(), ids.size(), sent, Duration.ofNanos(System.nanoTime()-start).toMillis());
+    }
+
+    // the local port is only known once the server is up, without a server (mock web environment) nothing is sent
+    private int exerciseEndpoints(List<Long> ids){
+        Integer port=environment.getProperty("local.server.port", Integer.class);
+        if(port==null || port<=0 || requests<=0){
+            return 0;
+        }
+        String base="http://localhost:"+port+"/api/employees";
+        List<URI> uris=new ArrayList<>();
+        uris.add(URI.create(base+"?limit=50"));
+        uris.add(URI.create(base+"?page=0&size=50"));
+        uris.add(URI.create(base+"/search?q=a"));
+        ids.forEach(id->uris.add(URI.create(base+"/"+id)));
+        HttpClient client=HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        long deadline=System.nanoTime()+timeout.toNanos();
+        int sent=0;
+        while(sent<requests && System.nanoTime()<deadline){
+            HttpRequest request=HttpRequest.newBuilder(uris.get(sent%uris.size())).timeout(Duration.ofSeconds(2)).GET().build();
+            try{
+                client.send(request, HttpResponse.BodyHandlers.discarding());
+            }catch(IOException e){
+                log.debug("Warm-up request {} failed", request.uri(), e);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                break;
+            }
+            sent++;
+        }
+        return sent;
+    }
+
+    // written while the cache is still there, before the context starts destroying beans
+    @EventListener(ContextClosedEvent.class)
+    public void writeSnapshot(){
+        List<Long> ids=hottestCachedIds();
+        try{
+            HotEmployeeSnapshot.write(snapshotFile, ids);
+        }catch(IOException e){
+            log.warn("Could not write the warm-up snapshot {}", snapshotFile, e);
+        }
+    }
+
+    private List<Long> hottestCachedIds(){
+        List<Long> ids=new ArrayList<>();
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        if(cache instanceof CaffeineCache){
+            com.github.benmanes.caffeine.cache.Cache<Object,Object> nativeCache=((CaffeineCache) cache).getNativeCache();
+            nativeCache.policy().eviction()
+                    .map(eviction->eviction.hottest(maxIds).keySet())
+                    .orElseGet(()->nativeCache.asMap().keySet())
+                    .forEach(key->{
+                        if(key instanceof Long && ids.size()<maxIds){
+                            ids.add((Long) key);
+                        }
+                    });
+        }
+        return ids;
+    }
+
+}
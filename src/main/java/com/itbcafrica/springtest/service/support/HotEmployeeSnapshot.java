@@ -0,0 +1,67 @@
+package com.itbcafrica.springtest.service.support;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ids of the most accessed employees, kept across restarts in a small memory-mapped file:
+ * a magic number and a count followed by the ids, hottest first. An unreadable or foreign file
+ * reads as empty so a bad snapshot only costs the warm-up, never the startup.
+ */
+public final class HotEmployeeSnapshot{
+
+    static final int MAGIC=0x45485331;
+
+    private static final int HEADER_BYTES=2*Integer.BYTES;
+
+    private HotEmployeeSnapshot(){
+    }
+
+    public static void write(Path file,Collection<Long> ids) throws IOException{
+        Path parent=file.toAbsolutePath().getParent();
+        if(parent!=null){
+            Files.createDirectories(parent);
+        }
+        try(FileChannel channel=FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES+(long) Long.BYTES*ids.size());
+            buffer.putInt(MAGIC);
+            buffer.putInt(ids.size());
+            for(Long id: ids){
+                buffer.putLong(id);
+            }
+            buffer.force();
+        }
+    }
+
+    public static List<Long> read(Path file){
+        List<Long> ids=new ArrayList<>();
+        if(!Files.isRegularFile(file)){
+            return ids;
+        }
+        try(FileChannel channel=FileChannel.open(file, StandardOpenOption.READ)){
+            if(channel.size()<HEADER_BYTES){
+                return ids;
+            }
+            MappedByteBuffer buffer=channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count=buffer.getInt(0)==MAGIC ? buffer.getInt(Integer.BYTES) : -1;
+            if(count<0 || channel.size()!=HEADER_BYTES+(long) Long.BYTES*count){
+                return ids;
+            }
+            buffer.position(HEADER_BYTES);
+            for(int i=0; i<count; i++){
+                ids.add(buffer.getLong());
+            }
+        }catch(IOException e){
+            ids.clear();
+        }
+        return ids;
+    }
+
+}
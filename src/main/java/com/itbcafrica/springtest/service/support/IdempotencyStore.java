@@ -0,0 +1,83 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itbcafrica.springtest.exception.IdempotencyKeyReusedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the result of a request under its client-supplied Idempotency-Key so that a retry
+ * is answered from memory instead of running the request again. Only successful results are
+ * stored, an action that fails or returns an empty result runs again on retry; retries racing the
+ * first attempt wait for it through a {@link SingleFlight}.
+ * The store is bounded in size and entries expire after the configured TTL.
+ */
+@Component
+public class IdempotencyStore{
+
+    private final Cache<String,StoredResult> results;
+
+    private final SingleFlight<String,StoredResult> inFlight=new SingleFlight<>();
+
+    public IdempotencyStore(@Value("${app.idempotency.max-keys:10000}") long maxKeys,@Value("${app.idempotency.ttl:24h}") Duration ttl){
+        this.results=Caffeine.newBuilder().maximumSize(maxKeys).expireAfterWrite(ttl).build();
+    }
+
+    /**
+     * Runs the action once per key. A repeated key returns the stored result when the request
+     * fingerprint matches and fails with {@link IdempotencyKeyReusedException} when it does not.
+     */
+    public <T> T execute(String key,Object fingerprint,Supplier<T> action){
+        return this.<T>executeIfPresent(key, fingerprint, ()->Optional.of(action.get())).get();
+    }
+
+    /**
+     * Same as {@link #execute} for an action that may have nothing to store: an empty result is not
+     * remembered, so a retry with the key runs the action again.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Optional<T> executeIfPresent(String key,Object fingerprint,Supplier<Optional<T>> action){
+        StoredResult result=results.getIfPresent(key);
+        if(result==null){
+            result=inFlight.execute(key, ()->{
+                StoredResult stored=results.getIfPresent(key);
+                if(stored==null){
+                    Optional<T> value=action.get();
+                    if(value.isEmpty()){
+                        return null;
+                    }
+                    stored=new StoredResult(fingerprint, value.get());
+                    results.put(key, stored);
+                }
+                return stored;
+            });
+            if(result==null){
+                return Optional.empty();
+            }
+        }
+        if(!Objects.equals(result.fingerprint, fingerprint)){
+            throw new IdempotencyKeyReusedException("Idempotency-Key "+key+" was already used for a different request");
+        }
+        return Optional.of((T) result.value);
+    }
+
+    private static final class StoredResult{
+
+        final Object fingerprint;
+
+        final Object value;
+
+        StoredResult(Object fingerprint,Object value){
+            this.fingerprint=fingerprint;
+            this.value=value;
+        }
+
+    }
+
+}
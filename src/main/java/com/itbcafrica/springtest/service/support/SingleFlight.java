@@ -0,0 +1,50 @@
+package com.itbcafrica.springtest.service.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key: the first caller runs the loader,
+ * callers arriving while it is in flight wait for and share its result.
+ */
+public class SingleFlight<K,V>{
+
+    private final ConcurrentMap<K,CompletableFuture<V>> inFlight=new ConcurrentHashMap<>();
+
+    public V execute(K key,Supplier<V> loader){
+        CompletableFuture<V> call=new CompletableFuture<>();
+        CompletableFuture<V> existingCall=inFlight.putIfAbsent(key,call);
+        if(existingCall!=null){
+            return join(existingCall);
+        }
+        try{
+            V value=loader.get();
+            call.complete(value);
+            return value;
+        }catch(Throwable e){
+            // errors too, or the callers waiting on this call would block forever
+            call.completeExceptionally(e);
+            throw e;
+        }finally{
+            inFlight.remove(key,call);
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> call){
+        try{
+            return call.join();
+        }catch(CompletionException e){
+            if(e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            if(e.getCause() instanceof Error){
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
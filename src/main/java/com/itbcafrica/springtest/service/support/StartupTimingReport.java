@@ -0,0 +1,56 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Logs the slowest startup steps recorded by the BufferingApplicationStartup that
+ * SpringTestApplication.main installs; durations include nested steps. The full timeline is served by
+ * /actuator/startup. Started any other way (tests) the application records nothing and no report is logged.
+ */
+@Component
+public class StartupTimingReport{
+
+    private static final Logger log=LoggerFactory.getLogger(StartupTimingReport.class);
+
+    private int topSteps;
+
+    public StartupTimingReport(@Value("${app.startup-report.top-steps:15}") int topSteps){
+        this.topSteps=topSteps;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void report(ApplicationReadyEvent event){
+        ApplicationStartup applicationStartup=event.getApplicationContext().getApplicationStartup();
+        if(!(applicationStartup instanceof BufferingApplicationStartup)){
+            return;
+        }
+        StartupTimeline timeline=((BufferingApplicationStartup) applicationStartup).getBufferedTimeline();
+        String slowestSteps=timeline.getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(topSteps)
+                .map(timelineEvent->String.format("%n  %6d ms  %s%s", timelineEvent.getDuration().toMillis(), timelineEvent.getStartupStep().getName(), tags(timelineEvent.getStartupStep())))
+                .collect(Collectors.joining());
+        log.info("Startup took {} ms, slowest steps:{}", event.getTimeTaken().toMillis(), slowestSteps);
+    }
+
+    private static String tags(StartupStep step){
+        String tags=StreamSupport.stream(step.getTags().spliterator(), false)
+                .map(tag->tag.getKey()+"="+tag.getValue())
+                .collect(Collectors.joining(", "));
+        return tags.isEmpty() ? "" : " ["+tags+"]";
+    }
+
+}
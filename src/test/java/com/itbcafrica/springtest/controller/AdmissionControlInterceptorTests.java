@@ -0,0 +1,73 @@
+package com.itbcafrica.springtest.controller;
+
+import com.itbcafrica.springtest.service.support.AdaptiveConcurrencyLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class AdmissionControlInterceptorTests{
+
+    private final Supplier<AdaptiveConcurrencyLimiter> singleSlot=()->new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, Duration.ofMillis(20));
+
+    private final SimpleMeterRegistry meterRegistry=new SimpleMeterRegistry();
+
+    private final AdmissionControlInterceptor interceptor=new AdmissionControlInterceptor(singleSlot, singleSlot, Duration.ZERO, 3, meterRegistry);
+
+    // Junit test for a request over the endpoint limit
+    @DisplayName("Junit test for a request over the endpoint limit")
+    @Test
+    public void givenEndpointAtLimit_whenPreHandle_thenShedWith503AndRetryAfter() throws Exception{
+        // given-precondition or setup
+        HandlerMethod getEmployeeById=handler("getEmployeeById");
+        MockHttpServletRequest firstRequest=new MockHttpServletRequest("GET", "/api/employees/1");
+        MockHttpServletResponse firstResponse=new MockHttpServletResponse();
+        interceptor.preHandle(firstRequest, firstResponse, getEmployeeById);
+        MockHttpServletResponse response=new MockHttpServletResponse();
+        // when -action or the behavior that we are going test
+        boolean admitted=interceptor.preHandle(new MockHttpServletRequest("GET", "/api/employees/2"), response, getEmployeeById);
+        // then - verify the output
+        assertThat(admitted).isFalse();
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+        assertThat(meterRegistry.get("employee.api.shed").counter().count()).isEqualTo(1);
+        interceptor.afterCompletion(firstRequest, firstResponse, getEmployeeById, null);
+        assertThat(interceptor.preHandle(new MockHttpServletRequest("GET", "/api/employees/3"), new MockHttpServletResponse(), getEmployeeById)).isTrue();
+    }
+
+    // Junit test for separate budgets per endpoint and for streaming endpoints
+    @DisplayName("Junit test for separate budgets per endpoint and for streaming endpoints")
+    @Test
+    public void givenReadEndpointAtLimit_whenPreHandleOtherEndpoints_thenAdmitted() throws Exception{
+        // given-precondition or setup
+        interceptor.preHandle(new MockHttpServletRequest("GET", "/api/employees/1"), new MockHttpServletResponse(), handler("getEmployeeById"));
+        // when -action or the behavior that we are going test
+        boolean writeAdmitted=interceptor.preHandle(new MockHttpServletRequest("DELETE", "/api/employees/1"), new MockHttpServletResponse(), handler("deleteEmployee"));
+        boolean exportAdmitted=interceptor.preHandle(new MockHttpServletRequest("GET", "/api/employees/export"), new MockHttpServletResponse(), handler("exportEmployees"));
+        boolean secondExportAdmitted=interceptor.preHandle(new MockHttpServletRequest("GET", "/api/employees/export"), new MockHttpServletResponse(), handler("exportEmployees"));
+        // then - verify the output
+        assertThat(writeAdmitted).isTrue();
+        assertThat(exportAdmitted).isTrue();
+        assertThat(secondExportAdmitted).isTrue();
+    }
+
+    private static HandlerMethod handler(String name){
+        for(Method method: EmployeeController.class.getMethods()){
+            if(method.getName().equals(name)){
+                return new HandlerMethod(mock(EmployeeController.class), method);
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+}
@@ -1,8 +1,22 @@
 package com.itbcafrica.springtest.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.itbcafrica.springtest.config.JacksonConfig;
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCreateStatus;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeImportError;
+import com.itbcafrica.springtest.model.EmployeeImportReport;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.service.EmployeeChangeFeed;
+import com.itbcafrica.springtest.service.EmployeeImportService;
 import com.itbcafrica.springtest.service.EmployeeService;
+import com.itbcafrica.springtest.service.EmployeeWriteBehindService;
+import com.itbcafrica.springtest.service.support.IdempotencyStore;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -11,22 +25,30 @@ import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest
+@Import({JacksonConfig.class, IdempotencyStore.class})
 public class EmployeeControllerTests{
 
     @Autowired
@@ -35,6 +57,15 @@ public class EmployeeControllerTests{
     @MockBean
     private EmployeeService employeeService;
 
+    @MockBean
+    private EmployeeImportService employeeImportService;
+
+    @MockBean
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @MockBean
+    private EmployeeWriteBehindService writeBehindService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -58,19 +89,242 @@ public class EmployeeControllerTests{
         response.andDo(print()).andExpect(status().isCreated()).andExpect(jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName()))).andExpect(jsonPath("$.lastName", CoreMatchers.is(employee.getLastName()))).andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    // Junit test for create Employee REST API retried with the same Idempotency-Key
+    @DisplayName("Junit test for create Employee REST API retried with the same Idempotency-Key")
+    @Test
+    public void givenIdempotencyKey_whenCreateEmployeeTwice_thenReplayFirstResponse() throws Exception{
+        // given-precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willAnswer((invocation)->{
+            Employee saved=invocation.getArgument(0);
+            saved.setId(42L);
+            return saved;
+        });
+        mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-42").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-42").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isCreated()).andExpect(jsonPath("$.id", CoreMatchers.is(42))).andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
+        verify(employeeService, times(1)).saveEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
+    // Junit test for create Employee REST API reusing an Idempotency-Key for another employee
+    @DisplayName("Junit test for create Employee REST API reusing an Idempotency-Key for another employee")
+    @Test
+    public void givenUsedIdempotencyKey_whenCreateOtherEmployee_thenReturn422() throws Exception{
+        // given-precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willAnswer((invocation)->invocation.getArgument(0));
+        mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-43").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        employee.setEmail("other@yahoo.fr");
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Idempotency-Key", "create-43").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isUnprocessableEntity());
+    }
+
+    // Junit test for batch create Employees REST API with client supplied ids
+    @DisplayName("Junit test for batch create Employees REST API with client supplied ids")
+    @Test
+    public void givenEmployeesWithIdAndVersion_whenCreateEmployees_thenIdAndVersionAreCleared() throws Exception{
+        // given-precondition or setup
+        employee.setVersion(3L);
+        Employee employee1=Employee.builder().id(2L).firstName("Jean").lastName("Paul").email("jean@yahoo.fr").version(0L).build();
+        given(employeeService.saveEmployees(ArgumentMatchers.anyList())).willAnswer((invocation)->invocation.getArgument(0));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(List.of(employee, employee1))));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isCreated()).andExpect(jsonPath("$.size()", CoreMatchers.is(2)));
+        verify(employeeService).saveEmployees(ArgumentMatchers.argThat(employees->employees.size()==2 && employees.stream().allMatch(saved->saved.getId()==null && saved.getVersion()==null)));
+    }
+
+    // Junit test for asynchronous create Employee REST API
+    @DisplayName("Junit test for asynchronous create Employee REST API")
+    @Test
+    public void givenPreferRespondAsync_whenCreateEmployee_thenReturn202WithStatusLocation() throws Exception{
+        // given-precondition or setup
+        given(writeBehindService.submit(ArgumentMatchers.any(Employee.class))).willReturn(Optional.of(EmployeeCreateStatus.pending("ticket-1")));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted()).andExpect(header().string(HttpHeaders.LOCATION, "/api/employees/pending/ticket-1")).andExpect(jsonPath("$.state", CoreMatchers.is("PENDING")));
+        verify(employeeService, never()).saveEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
+    // Junit test for asynchronous create Employee REST API with several preferences
+    @DisplayName("Junit test for asynchronous create Employee REST API with several preferences")
+    @Test
+    public void givenPreferRespondAsyncAndWait_whenCreateEmployee_thenReturn202() throws Exception{
+        // given-precondition or setup
+        given(writeBehindService.submit(ArgumentMatchers.any(Employee.class))).willReturn(Optional.of(EmployeeCreateStatus.pending("ticket-1")));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "wait=5, Respond-Async").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted()).andExpect(header().string("Preference-Applied", "respond-async"));
+        verify(employeeService, never()).saveEmployee(ArgumentMatchers.any(Employee.class));
+    }
+
+    // Junit test for create Employee REST API with a preference other than respond-async
+    @DisplayName("Junit test for create Employee REST API with a preference other than respond-async")
+    @Test
+    public void givenPreferWithoutRespondAsync_whenCreateEmployee_thenReturn201() throws Exception{
+        // given-precondition or setup
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willAnswer(invocation->invocation.getArgument(0));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "return=minimal").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isCreated()).andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
+        verify(writeBehindService, never()).submit(ArgumentMatchers.any(Employee.class));
+    }
+
+    // Junit test for asynchronous create Employee REST API with a full queue
+    @DisplayName("Junit test for asynchronous create Employee REST API with a full queue")
+    @Test
+    public void givenFullQueue_whenCreateEmployeeAsync_thenReturn503WithRetryAfter() throws Exception{
+        // given-precondition or setup
+        given(writeBehindService.submit(ArgumentMatchers.any(Employee.class))).willReturn(Optional.empty());
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isServiceUnavailable()).andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    // Junit test for a retried asynchronous create Employee REST API with an Idempotency-Key
+    @DisplayName("Junit test for a retried asynchronous create Employee REST API with an Idempotency-Key")
+    @Test
+    public void givenIdempotencyKey_whenCreateEmployeeAsyncTwice_thenQueuedOnceAndSameTicketReplayed() throws Exception{
+        // given-precondition or setup
+        given(writeBehindService.submit(ArgumentMatchers.any(Employee.class))).willReturn(Optional.of(EmployeeCreateStatus.pending("ticket-1")), Optional.of(EmployeeCreateStatus.pending("ticket-2")));
+        mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").header("Idempotency-Key", "async-key-1").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").header("Idempotency-Key", "async-key-1").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted()).andExpect(header().string(HttpHeaders.LOCATION, "/api/employees/pending/ticket-1")).andExpect(jsonPath("$.ticket", CoreMatchers.is("ticket-1")));
+        verify(writeBehindService, times(1)).submit(ArgumentMatchers.any(Employee.class));
+    }
+
+    // Junit test for an asynchronous create Employee REST API retried after a full queue
+    @DisplayName("Junit test for an asynchronous create Employee REST API retried after a full queue")
+    @Test
+    public void givenFullQueueThenRoom_whenCreateEmployeeAsyncWithKeyTwice_thenSecondIsQueued() throws Exception{
+        // given-precondition or setup
+        given(writeBehindService.submit(ArgumentMatchers.any(Employee.class))).willReturn(Optional.empty(), Optional.of(EmployeeCreateStatus.pending("ticket-1")));
+        mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").header("Idempotency-Key", "async-key-2").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isServiceUnavailable());
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").header("Idempotency-Key", "async-key-2").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isAccepted()).andExpect(header().string(HttpHeaders.LOCATION, "/api/employees/pending/ticket-1"));
+    }
+
+    // Junit test for CSV import REST API
+    @DisplayName("Junit test for CSV import REST API")
+    @Test
+    public void givenCsvBody_whenImportEmployees_thenReturnImportReport() throws Exception{
+        // given-precondition or setup
+        given(employeeImportService.importEmployees(ArgumentMatchers.any())).willReturn(new EmployeeImportReport(2, 1, 1, List.of(new EmployeeImportError(3, "bad", "Invalid email: bad"))));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees/import").contentType("text/csv").content("firstName,lastName,email\nBouendeu,Raphael,Raphael@yahoo.fr\nRam,Jadhav,bad\n"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.imported", CoreMatchers.is(1))).andExpect(jsonPath("$.errors[0].row", CoreMatchers.is(3)));
+    }
+
     // Junit test for get all employees REST API
     @DisplayName("Junit test for get all employees REST API")
     @Test
     public void givenlistOfEmployees_whenGetAllEmployees_thenReturnEmployeesList() throws Exception{
         // given-precondition or setup
-        List<Employee> listOfEmployees=new ArrayList<>();
-        listOfEmployees.add(Employee.builder().id(1L).firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
-        listOfEmployees.add(Employee.builder().id(1L).firstName("Bouendeu2").lastName("Raphael2").email("Raphael2@yahoo.fr").build());
+        List<EmployeeSummary> listOfEmployees=new ArrayList<>();
+        listOfEmployees.add(new EmployeeSummary(1L, "Bouendeu", "Raphael", "Raphael@yahoo.fr", 0L));
+        listOfEmployees.add(new EmployeeSummary(2L, "Bouendeu2", "Raphael2", "Raphael2@yahoo.fr", 0L));
         given(employeeService.getAllEmployees()).willReturn(listOfEmployees);
         // when -action or the behavior that we are going test
         ResultActions response=mockMvc.perform(get("/api/employees"));
         // then - verify the output
-        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", CoreMatchers.is(listOfEmployees.size())));
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", CoreMatchers.is(listOfEmployees.size()))).andExpect(jsonPath("$[0].firstName", CoreMatchers.is("Bouendeu")));
+    }
+
+    // Junit test for get all employees REST API in Smile
+    @DisplayName("Junit test for get all employees REST API in Smile")
+    @Test
+    public void givenAcceptSmile_whenGetAllEmployees_thenReturnSmileEncodedList() throws Exception{
+        // given-precondition or setup
+        given(employeeService.getAllEmployees()).willReturn(List.of(new EmployeeSummary(1L, "Bouendeu", "Raphael", "Raphael@yahoo.fr", 0L)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees").param("fields", "id,email").accept("application/x-jackson-smile"));
+        // then - verify the output
+        byte[] body=response.andExpect(status().isOk()).andExpect(content().contentType("application/x-jackson-smile")).andReturn().getResponse().getContentAsByteArray();
+        JsonNode employees=new ObjectMapper(new SmileFactory()).readTree(body);
+        assertThat(employees.get(0).get("email").asText()).isEqualTo("Raphael@yahoo.fr");
+        assertThat(employees.get(0).has("firstName")).isFalse();
+    }
+
+    // Junit test for create Employee REST API with a CBOR body
+    @DisplayName("Junit test for create Employee REST API with a CBOR body")
+    @Test
+    public void givenCborEmployee_whenCreateEmployee_thenReturnCborEncodedEmployee() throws Exception{
+        // given-precondition or setup
+        ObjectMapper cborMapper=new ObjectMapper(new CBORFactory());
+        given(employeeService.saveEmployee(ArgumentMatchers.any(Employee.class))).willAnswer((invocation)->invocation.getArgument(0));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").contentType("application/cbor").accept("application/cbor").content(cborMapper.writeValueAsBytes(employee)));
+        // then - verify the output
+        byte[] body=response.andExpect(status().isCreated()).andExpect(content().contentType("application/cbor")).andReturn().getResponse().getContentAsByteArray();
+        assertThat(cborMapper.readValue(body, Employee.class).getEmail()).isEqualTo(employee.getEmail());
+    }
+
+    // Junit test for get all employees REST API with field selection
+    @DisplayName("Junit test for get all employees REST API with field selection")
+    @Test
+    public void givenFields_whenGetAllEmployees_thenReturnOnlySelectedFields() throws Exception{
+        // given-precondition or setup
+        given(employeeService.getAllEmployees()).willReturn(List.of(new EmployeeSummary(1L, "Bouendeu", "Raphael", "Raphael@yahoo.fr", 0L)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees").param("fields", "id,email,unknown"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$[0].id", CoreMatchers.is(1))).andExpect(jsonPath("$[0].email", CoreMatchers.is("Raphael@yahoo.fr"))).andExpect(jsonPath("$[0].firstName").doesNotExist()).andExpect(jsonPath("$[0].version").doesNotExist());
+    }
+
+    // Junit test for keyset paginated employees REST API
+    @DisplayName("Junit test for keyset paginated employees REST API")
+    @Test
+    public void givenCursor_whenGetEmployeesAfter_thenReturnPageWithNextCursor() throws Exception{
+        // given-precondition or setup
+        given(employeeService.getEmployeesAfter(1L, 1)).willReturn(new EmployeeCursorPage(List.of(EmployeeSummary.of(employee)), 2L, 1));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees").param("after", "1").param("limit", "1"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.content.size()", CoreMatchers.is(1))).andExpect(jsonPath("$.nextCursor", CoreMatchers.is(2)));
+    }
+
+    // Junit test for NDJSON export REST API
+    @DisplayName("Junit test for NDJSON export REST API")
+    @Test
+    public void givenEmployees_whenExportEmployees_thenStreamOneJsonObjectPerLine() throws Exception{
+        // given-precondition or setup
+        EmployeeSummary summary=EmployeeSummary.of(employee);
+        EmployeeSummary summary2=new EmployeeSummary(2L, "Bouendeu2", "Raphael2", "Raphael2@yahoo.fr", 0L);
+        willAnswer((invocation)->{
+            Consumer<EmployeeSummary> consumer=invocation.getArgument(0);
+            consumer.accept(summary);
+            consumer.accept(summary2);
+            return null;
+        }).given(employeeService).exportEmployees(ArgumentMatchers.any());
+        // when -action or the behavior that we are going test
+        MvcResult mvcResult=mockMvc.perform(get("/api/employees/export")).andExpect(request().asyncStarted()).andReturn();
+        ResultActions response=mockMvc.perform(asyncDispatch(mvcResult));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(content().contentType("application/x-ndjson")).andExpect(content().string(objectMapper.writeValueAsString(summary)+"\n"+objectMapper.writeValueAsString(summary2)+"\n"));
+    }
+
+    // Junit test for employee search REST API
+    @DisplayName("Junit test for employee search REST API")
+    @Test
+    public void givenQuery_whenSearchEmployees_thenReturnMatchingEmployees() throws Exception{
+        // given-precondition or setup
+        given(employeeService.searchEmployees("rap", 5)).willReturn(List.of(EmployeeSummary.of(employee)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees/search").param("q", "rap").param("limit", "5"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", CoreMatchers.is(1))).andExpect(jsonPath("$[0].email", CoreMatchers.is(employee.getEmail())));
     }
 
     // positiv scenario  --valid employee id
@@ -86,6 +340,31 @@ public class EmployeeControllerTests{
         response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName())));
     }
 
+    // Junit test for get employees by ids REST API
+    @DisplayName("Junit test for get employees by ids REST API")
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesAndMissingIds() throws Exception{
+        // given-precondition or setup
+        given(employeeService.getEmployeesByIds(List.of(1L, 5L))).willReturn(new EmployeeLookupResult(List.of(employee), List.of(5L)));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees").param("ids", "1,5"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.employees[0].id", CoreMatchers.is(1))).andExpect(jsonPath("$.missingIds[0]", CoreMatchers.is(5)));
+    }
+
+    // Junit test for conditional get employee by id REST API
+    @DisplayName("Junit test for conditional get employee by id REST API")
+    @Test
+    public void givenCurrentETag_whenGetEmployeeById_thenReturn304WithoutBody() throws Exception{
+        // given-precondition or setup
+        employee.setVersion(3L);
+        given(employeeService.getEmployeeById(employee.getId())).willReturn(Optional.of(employee));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/api/employees/{id}", employee.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"3\""));
+        // then - verify the output
+        response.andExpect(status().isNotModified()).andDo(print()).andExpect(header().string(HttpHeaders.ETAG, "\"3\"")).andExpect(content().string(""));
+    }
+
     // Negativ  scenario  --negativ employee id
     // Junit test for employee by invalid id REST API
     @DisplayName("Junit test for employee by invalid id REST API")
@@ -113,9 +392,40 @@ public class EmployeeControllerTests{
         ResultActions response=mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId()).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updateEmployee)));
         // then - verify the output
         response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.firstName", CoreMatchers.is(updateEmployee.getFirstName()))).andExpect(jsonPath("$.lastName", CoreMatchers.is(updateEmployee.getLastName()))).andExpect(jsonPath("$.email", CoreMatchers.is(updateEmployee.getEmail())));
+        // the instance returned by getEmployeeById may be cached, it must stay untouched
+        assertThat(savedEmployee.getEmail()).isEqualTo("Raphaels@yahoo.fr");
+        verify(employeeService).updateEmployee(ArgumentMatchers.argThat(employee->employee!=savedEmployee && employee.getId().equals(savedEmployee.getId())));
+    }
+
 
+    // Junit test for update employee REST API with a stale If-Match
+    @DisplayName("Junit test for update employee REST API with a stale If-Match")
+    @Test
+    public void givenStaleETag_whenUpdateEmployee_thenReturn412() throws Exception{
+        // given-precondition or setup
+        Employee savedEmployee=Employee.builder().id(1L).firstName("Bouendeus").lastName("Raphaels").email("Raphaels@yahoo.fr").version(4L).build();
+        given(employeeService.getEmployeeById(savedEmployee.getId())).willReturn(Optional.of(savedEmployee));
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"3\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andExpect(status().isPreconditionFailed()).andDo(print());
+        verify(employeeService, never()).updateEmployee(ArgumentMatchers.any(Employee.class));
     }
 
+    // Junit test for update and delete employee REST API with a malformed If-Match
+    @DisplayName("Junit test for update and delete employee REST API with a malformed If-Match")
+    @Test
+    public void givenMalformedIfMatch_whenUpdateOrDeleteEmployee_thenReturn400() throws Exception{
+        // given-precondition or setup
+        // when -action or the behavior that we are going test
+        ResultActions update=mockMvc.perform(put("/api/employees/{id}", employee.getId()).header(HttpHeaders.IF_MATCH, "3").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        ResultActions delete=mockMvc.perform(delete("/api/employees/{id}", employee.getId()).header(HttpHeaders.IF_MATCH, "\"v3\""));
+        // then - verify the output
+        update.andExpect(status().isBadRequest()).andDo(print());
+        delete.andExpect(status().isBadRequest()).andDo(print());
+        verify(employeeService, never()).updateEmployee(ArgumentMatchers.any(Employee.class));
+        verify(employeeService, never()).deleteEmployee(ArgumentMatchers.anyLong());
+    }
 
     // negativ scenario
     // Junit test for negativ update employee REST API
@@ -132,16 +442,77 @@ public class EmployeeControllerTests{
 
     }
 
+    // Junit test for patch employee REST API
+    @DisplayName("Junit test for patch employee REST API")
+    @Test
+    public void givenEmployeePatch_whenPatchEmployee_thenReturn204WithoutETag() throws Exception{
+        // given-precondition or setup
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employee.getId()), ArgumentMatchers.any(Employee.class), ArgumentMatchers.isNull())).willReturn(true);
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(patch("/api/employees/{id}", employee.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"Raphael2@yahoo.fr\"}"));
+        // then - verify the output
+        response.andExpect(status().isNoContent()).andExpect(header().doesNotExist(HttpHeaders.ETAG)).andDo(print());
+    }
+
+    // Junit test for patch employee REST API with If-Match
+    @DisplayName("Junit test for patch employee REST API with If-Match")
+    @Test
+    public void givenEmployeePatchAndIfMatch_whenPatchEmployee_thenReturn204WithNextETag() throws Exception{
+        // given-precondition or setup
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employee.getId()), ArgumentMatchers.any(Employee.class), ArgumentMatchers.eq(1L))).willReturn(true);
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(patch("/api/employees/{id}", employee.getId()).header(HttpHeaders.IF_MATCH, "\"1\"").contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"Raphael2@yahoo.fr\"}"));
+        // then - verify the output
+        response.andExpect(status().isNoContent()).andExpect(header().string(HttpHeaders.ETAG, "\"2\"")).andDo(print());
+        verify(employeeService, never()).getEmployeeById(employee.getId());
+    }
+
+    // Junit test for patch employee REST API with unknown id
+    @DisplayName("Junit test for patch employee REST API with unknown id")
+    @Test
+    public void givenInvalidEmployeeId_whenPatchEmployee_thenReturn404() throws Exception{
+        // given-precondition or setup
+        given(employeeService.patchEmployee(ArgumentMatchers.eq(employee.getId()), ArgumentMatchers.any(Employee.class), ArgumentMatchers.isNull())).willReturn(false);
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(patch("/api/employees/{id}", employee.getId()).contentType(MediaType.APPLICATION_JSON).content("{\"email\":\"Raphael2@yahoo.fr\"}"));
+        // then - verify the output
+        response.andExpect(status().isNotFound()).andDo(print());
+    }
+
     // Junit test for delete employee REST API
     @DisplayName("Junit test for delete employee REST API")
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenReturn200() throws Exception{
         // given-precondition or setup
-        willDoNothing().given(employeeService).deleteEmployee(employee.getId());
+        given(employeeService.deleteEmployee(employee.getId())).willReturn(true);
         // when -action or the behavior that we are going test
         ResultActions response=mockMvc.perform(delete("/api/employees/{id}", employee.getId()));
         // then - verify the output
         response.andExpect(status().isOk()).andDo(print());
     }
 
+    // Junit test for delete employee REST API with unknown id
+    @DisplayName("Junit test for delete employee REST API with unknown id")
+    @Test
+    public void givenInvalidEmployeeId_whenDeleteEmployee_thenReturn404() throws Exception{
+        // given-precondition or setup
+        given(employeeService.deleteEmployee(employee.getId())).willReturn(false);
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(delete("/api/employees/{id}", employee.getId()));
+        // then - verify the output
+        response.andExpect(status().isNotFound()).andDo(print());
+    }
+
+    // Junit test for bulk delete employees REST API
+    @DisplayName("Junit test for bulk delete employees REST API")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount() throws Exception{
+        // given-precondition or setup
+        given(employeeService.deleteEmployees(List.of(1L, 2L, 3L))).willReturn(2);
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(delete("/api/employees").param("ids", "1,2,3"));
+        // then - verify the output
+        response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.deleted", CoreMatchers.is(2)));
+    }
+
 }
@@ -0,0 +1,61 @@
+package com.itbcafrica.springtest.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReplicaRoutingDataSourceTests{
+
+    private final DataSource primary=new DriverManagerDataSource("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1", "sa", "");
+
+    private final DataSource replica=new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", "");
+
+    // Junit test for a replica within the lag limit
+    @DisplayName("Junit test for a replica within the lag limit")
+    @Test
+    public void givenReplicaWithinMaxLag_whenCheckReplicas_thenReplicaStaysAvailable(){
+        // given-precondition or setup
+        ReplicaRoutingDataSource routingDataSource=new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), "select 1", 5);
+        // when -action or the behavior that we are going test
+        routingDataSource.checkReplicas();
+        // then - verify the output
+        assertThat(routingDataSource.getAvailableReplicas()).containsExactly("replica-0");
+    }
+
+    // Junit test for a lagging replica falling back to the primary
+    @DisplayName("Junit test for a lagging replica falling back to the primary")
+    @Test
+    public void givenLaggingReplica_whenCheckReplicas_thenReplicaIsSkipped(){
+        // given-precondition or setup
+        ReplicaRoutingDataSource routingDataSource=new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica), "select 60", 5);
+        // when -action or the behavior that we are going test
+        routingDataSource.checkReplicas();
+        // then - verify the output
+        assertThat(routingDataSource.getAvailableReplicas()).isEmpty();
+    }
+
+    // Junit test for closing the pools with the routing data source
+    @DisplayName("Junit test for closing the pools with the routing data source")
+    @Test
+    public void givenPools_whenDestroy_thenPrimaryAndReplicaPoolsAreClosed(){
+        // given-precondition or setup
+        HikariDataSource primaryPool=new HikariDataSource();
+        primaryPool.setJdbcUrl("jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1");
+        HikariDataSource replicaPool=new HikariDataSource();
+        replicaPool.setJdbcUrl("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1");
+        ReplicaRoutingDataSource routingDataSource=new ReplicaRoutingDataSource(primaryPool, Map.of("replica-0", replicaPool), null, 5);
+        routingDataSource.checkReplicas();
+        // when -action or the behavior that we are going test
+        routingDataSource.destroy();
+        // then - verify the output
+        assertThat(primaryPool.isClosed()).isTrue();
+        assertThat(replicaPool.isClosed()).isTrue();
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.itbcafrica.springtest.integration;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeChange;
+import com.itbcafrica.springtest.model.EmployeeChangeEvent;
+import com.itbcafrica.springtest.repository.EmployeeChangeRepository;
+import com.itbcafrica.springtest.service.EmployeeChangeFeed;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment=SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class EmployeeChangeFeedIntegrationTests{
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeChangeFeed employeeChangeFeed;
+
+    @Autowired
+    private EmployeeChangeRepository changeRepository;
+
+    // Junit test for outbox rows written with employee mutations
+    @DisplayName("Junit test for outbox rows written with employee mutations")
+    @Test
+    public void givenEmployeeMutations_whenRelay_thenChangesGetConsecutiveOffsets(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("outbox@yahoo.fr").build());
+        employeeService.patchEmployee(employee.getId(), Employee.builder().lastName("Tchami").build(), null);
+        employeeService.deleteEmployee(employee.getId());
+        // when -action or the behavior that we are going test
+        employeeChangeFeed.relay();
+        // then - verify the output
+        List<EmployeeChange> changes=changesOf(employee.getId());
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(EmployeeChange.Type.CREATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.DELETED);
+        assertThat(changes.get(1).getLastName()).isEqualTo("Tchami");
+        assertThat(changes.get(1).getOffset()).isEqualTo(changes.get(0).getOffset()+1);
+        assertThat(changes.get(2).getOffset()).isEqualTo(changes.get(1).getOffset()+1);
+    }
+
+    // Junit test for outbox rows written by JPA and by bulk statements in the same feed
+    @DisplayName("Junit test for outbox rows written by JPA and by bulk statements in the same feed")
+    @Test
+    public void givenMixedPatchUpdateAndBulkDelete_whenRelay_thenOffsetsFollowTheOrderOfTheChanges(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("ordering@yahoo.fr").build());
+        employeeService.patchEmployee(employee.getId(), Employee.builder().lastName("Tchami").build(), null);
+        Employee current=employeeService.getEmployeeById(employee.getId()).get();
+        employeeService.updateEmployee(new Employee(current.getId(), "Jean", current.getLastName(), current.getEmail(), current.getVersion()));
+        employeeService.patchEmployee(employee.getId(), Employee.builder().firstName("Paul").build(), null);
+        employeeService.deleteEmployees(List.of(employee.getId()));
+        // when -action or the behavior that we are going test
+        employeeChangeFeed.relay();
+        // then - verify the output
+        List<EmployeeChange> changes=changesOf(employee.getId());
+        assertThat(changes).extracting(EmployeeChange::getType).containsExactly(EmployeeChange.Type.CREATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.UPDATED, EmployeeChange.Type.DELETED);
+        assertThat(changes).extracting(EmployeeChange::getFirstName).containsExactly("Bouendeu", "Bouendeu", "Jean", "Paul", null);
+        assertThat(changes).extracting(EmployeeChange::getOffset).doesNotContainNull();
+    }
+
+    // Junit test for employee changes SSE REST API resuming from an offset
+    @DisplayName("Junit test for employee changes SSE REST API resuming from an offset")
+    @Test
+    public void givenOffset_whenStreamChanges_thenReceiveLaterChangesThenLiveOnes(){
+        // given-precondition or setup
+        employeeChangeFeed.relay();
+        long since=changeRepository.findMaxOffset().orElse(0L);
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Jean").lastName("Paul").email("sse@yahoo.fr").build());
+        employeeChangeFeed.relay();
+        WebTestClient webTestClient=WebTestClient.bindToServer().baseUrl("http://localhost:"+port).responseTimeout(Duration.ofSeconds(10)).build();
+        // when -action or the behavior that we are going test
+        Flux<ServerSentEvent<EmployeeChangeEvent>> events=webTestClient.get().uri("/api/employees/changes?since={since}", since)
+                .accept(MediaType.TEXT_EVENT_STREAM).exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<EmployeeChangeEvent>>(){}).getResponseBody();
+        // then - verify the output
+        StepVerifier.create(events)
+                .assertNext(event->{
+                    assertThat(event.event()).isEqualTo("created");
+                    assertThat(event.id()).isEqualTo(String.valueOf(since+1));
+                    assertThat(event.data().getEmployee().getEmail()).isEqualTo("sse@yahoo.fr");
+                })
+                .then(()->{
+                    employeeService.deleteEmployee(employee.getId());
+                    employeeChangeFeed.relay();
+                })
+                .assertNext(event->{
+                    assertThat(event.event()).isEqualTo("deleted");
+                    assertThat(event.data().getEmployeeId()).isEqualTo(employee.getId());
+                    assertThat(event.data().getEmployee()).isNull();
+                })
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    // Junit test for deleting published changes past the retention window
+    @DisplayName("Junit test for deleting published changes past the retention window")
+    @Test
+    public void givenChangesOlderThanRetention_whenPurgePublished_thenOnlyTheyAreDeleted(){
+        // given-precondition or setup
+        Employee oldEmployee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("retention-old@yahoo.fr").build());
+        employeeChangeFeed.relay();
+        changesOf(oldEmployee.getId()).forEach(change->{
+            change.setCreatedAt(Instant.now().minus(Duration.ofDays(8)));
+            changeRepository.save(change);
+        });
+        Employee newEmployee=employeeService.saveEmployee(Employee.builder().firstName("Jean").lastName("Paul").email("retention-new@yahoo.fr").build());
+        employeeChangeFeed.relay();
+        long maxOffset=changeRepository.findMaxOffset().get();
+        // when -action or the behavior that we are going test
+        int purged=employeeChangeFeed.purgePublished();
+        // then - verify the output
+        assertThat(purged).isGreaterThanOrEqualTo(1);
+        assertThat(changesOf(oldEmployee.getId())).isEmpty();
+        assertThat(changesOf(newEmployee.getId())).hasSize(1);
+        assertThat(changeRepository.findMaxOffset()).contains(maxOffset);
+    }
+
+    // in feed order
+    private List<EmployeeChange> changesOf(Long employeeId){
+        return changeRepository.findAll(Sort.by("offset")).stream().filter(change->change.getEmployeeId().equals(employeeId)).collect(Collectors.toList());
+    }
+
+}
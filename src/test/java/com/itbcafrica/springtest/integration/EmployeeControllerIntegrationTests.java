@@ -3,6 +3,7 @@ package com.itbcafrica.springtest.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.itbcafrica.springtest.model.Employee;
 import com.itbcafrica.springtest.repository.EmployeeRepository;
+import com.itbcafrica.springtest.service.EmployeeService;
 import org.hamcrest.CoreMatchers;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -10,23 +11,40 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(webEnvironment=SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
 public class EmployeeControllerIntegrationTests{
 
+    @LocalServerPort
+    private int port;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -36,6 +54,12 @@ public class EmployeeControllerIntegrationTests{
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @BeforeEach
     public void setup(){
         employeeRepository.deleteAll();
@@ -53,6 +77,71 @@ public class EmployeeControllerIntegrationTests{
         response.andDo(print()).andExpect(status().isCreated()).andExpect(jsonPath("$.firstName", CoreMatchers.is(employee.getFirstName()))).andExpect(jsonPath("$.lastName", CoreMatchers.is(employee.getLastName()))).andExpect(jsonPath("$.email", CoreMatchers.is(employee.getEmail())));
     }
 
+    // Junit test for create Employee REST API with an already existing email
+    @DisplayName("Junit test for create Employee REST API with an already existing email")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        Employee employee=Employee.builder().firstName("Bouendeu2").lastName("Raphael2").email("Raphael@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isConflict());
+        assertThat(employeeRepository.count()).isEqualTo(1);
+    }
+
+    // Junit test for asynchronous create Employee REST API INTEGRATION
+    @DisplayName("Junit test for asynchronous create Employee REST API INTEGRATION")
+    @Test
+    public void givenPreferRespondAsync_whenCreateEmployees_thenBatchedCreatesReachFinalStatus() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        Employee employee=Employee.builder().firstName("Jean").lastName("Paul").email("jean@yahoo.fr").build();
+        Employee duplicate=Employee.builder().firstName("Bouendeu2").lastName("Raphael2").email("Raphael@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        String created=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(employee)))
+                .andExpect(status().isAccepted()).andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        String failed=mockMvc.perform(post("/api/employees").header("Prefer", "respond-async").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(duplicate)))
+                .andExpect(status().isAccepted()).andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+        // then - verify the output
+        awaitFinalStatus(created).andExpect(jsonPath("$.state", CoreMatchers.is("CREATED")));
+        awaitFinalStatus(failed).andExpect(jsonPath("$.state", CoreMatchers.is("FAILED")));
+        assertThat(employeeRepository.findByEmail("jean@yahoo.fr")).isPresent();
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
+    private ResultActions awaitFinalStatus(String location) throws Exception{
+        long deadline=System.currentTimeMillis()+5000;
+        while(true){
+            ResultActions response=mockMvc.perform(get(location)).andExpect(status().isOk());
+            if(!response.andReturn().getResponse().getContentAsString().contains("PENDING") || System.currentTimeMillis()>deadline){
+                return response;
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    // Junit test for gzip compression of large employee lists
+    @DisplayName("Junit test for gzip compression of large employee lists")
+    @Test
+    public void givenManyEmployees_whenGetAllEmployeesWithAcceptEncodingGzip_thenResponseIsCompressed() throws Exception{
+        // given-precondition or setup
+        List<Employee> employees=new ArrayList<>();
+        for(int i=0; i<100; i++){
+            employees.add(Employee.builder().firstName("Bouendeu"+i).lastName("Raphael"+i).email("raphael"+i+"@yahoo.fr").build());
+        }
+        employeeRepository.saveAll(employees);
+        // when -action or the behavior that we are going test
+        HttpResponse<byte[]> response=HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create("http://localhost:"+port+"/api/employees")).header(HttpHeaders.ACCEPT_ENCODING, "gzip").build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        // then - verify the output
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        try(GZIPInputStream body=new GZIPInputStream(new ByteArrayInputStream(response.body()))){
+            assertThat(objectMapper.readTree(body).size()).isEqualTo(100);
+        }
+    }
+
     // Junit test for get all employees REST API
     @DisplayName("Junit test for get all employees REST API")
     @Test
@@ -68,4 +157,155 @@ public class EmployeeControllerIntegrationTests{
         response.andExpect(status().isOk()).andDo(print()).andExpect(jsonPath("$.size()", CoreMatchers.is(listOfEmployees.size())));
     }
 
+    // Junit test for update employee REST API after the employee has been cached
+    @DisplayName("Junit test for update employee REST API after the employee has been cached")
+    @Test
+    public void givenCachedEmployee_whenUpdateEmployee_thenGetEmployeeByIdReturnsUpdatedEmployee() throws Exception{
+        // given-precondition or setup
+        Employee savedEmployee=employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())).andExpect(status().isOk());
+        Employee updateEmployee=Employee.builder().firstName("Bouendeu2").lastName("Raphael2").email("Raphael2@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId()).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updateEmployee))).andExpect(status().isOk());
+        ResultActions response=mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isOk()).andExpect(jsonPath("$.email", CoreMatchers.is(updateEmployee.getEmail())));
+    }
+
+    // Junit test for a read that caches the old row while an update is still uncommitted
+    @DisplayName("Junit test for a read that caches the old row while an update is still uncommitted")
+    @Test
+    public void givenReadDuringUpdateTransaction_whenUpdateCommits_thenCacheHoldsNoStaleEmployee() throws Exception{
+        // given-precondition or setup
+        Employee savedEmployee=employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        Employee updateEmployee=Employee.builder().id(savedEmployee.getId()).version(savedEmployee.getVersion()).firstName("Bouendeu2").lastName("Raphael2").email("Raphael2@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        new TransactionTemplate(transactionManager).executeWithoutResult(status->{
+            employeeService.updateEmployee(updateEmployee);
+            // another request reads the committed, old row and caches it
+            CompletableFuture.runAsync(()->employeeService.getEmployeeById(savedEmployee.getId())).join();
+        });
+        // then - verify the output
+        assertThat(employeeService.getEmployeeById(savedEmployee.getId())).get().extracting(Employee::getEmail).isEqualTo("Raphael2@yahoo.fr");
+    }
+
+    // Junit test for update employee REST API with an email taken by another employee
+    @DisplayName("Junit test for update employee REST API with an email taken by another employee")
+    @Test
+    public void givenEmailOfOtherEmployee_whenUpdateEmployee_thenReturn409() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Jean").lastName("Paul").email("jean@yahoo.fr").build());
+        Employee savedEmployee=employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        Employee updateEmployee=Employee.builder().firstName("Bouendeu").lastName("Raphael").email("jean@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(put("/api/employees/{id}", savedEmployee.getId()).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updateEmployee)));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isConflict());
+        assertThat(employeeRepository.findById(savedEmployee.getId()).get().getEmail()).isEqualTo("Raphael@yahoo.fr");
+    }
+
+    // Junit test for conditional get and update employee REST API
+    @DisplayName("Junit test for conditional get and update employee REST API")
+    @Test
+    public void givenEmployeeETag_whenConditionalRequests_thenReturn304And412() throws Exception{
+        // given-precondition or setup
+        Employee savedEmployee=employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        String etag=mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId())).andExpect(status().isOk()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // when -action or the behavior that we are going test
+        ResultActions notModified=mockMvc.perform(get("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_NONE_MATCH, etag));
+        String patchedEtag=mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, etag).contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"Bouendeu2\"}")).andExpect(status().isNoContent()).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, patchedEtag).contentType(MediaType.APPLICATION_JSON).content("{}")).andExpect(status().isNoContent()).andExpect(header().string(HttpHeaders.ETAG, patchedEtag));
+        ResultActions staleUpdate=mockMvc.perform(patch("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, etag).contentType(MediaType.APPLICATION_JSON).content("{\"firstName\":\"Bouendeu3\"}"));
+        // then - verify the output
+        notModified.andExpect(status().isNotModified());
+        staleUpdate.andDo(print()).andExpect(status().isPreconditionFailed());
+        assertThat(employeeRepository.findById(savedEmployee.getId()).get().getFirstName()).isEqualTo("Bouendeu2");
+    }
+
+    // Junit test for batch create employees REST API
+    @DisplayName("Junit test for batch create employees REST API")
+    @Test
+    public void givenlistOfEmployees_whenCreateEmployees_thenReturnSavedEmployeesList() throws Exception{
+        // given-precondition or setup
+        List<Employee> listOfEmployees=new ArrayList<>();
+        for(int i=0; i<120; i++){
+            listOfEmployees.add(Employee.builder().firstName("Bouendeu"+i).lastName("Raphael"+i).email("Raphael"+i+"@yahoo.fr").build());
+        }
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees/batch").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(listOfEmployees)));
+        // then - verify the output
+        response.andExpect(status().isCreated()).andExpect(jsonPath("$.size()", CoreMatchers.is(listOfEmployees.size()))).andExpect(jsonPath("$[0].id", CoreMatchers.notNullValue()));
+        assertThat(employeeRepository.count()).isEqualTo(listOfEmployees.size());
+    }
+
+    // Junit test for delete employees by email domain REST API
+    @DisplayName("Junit test for delete employees by email domain REST API")
+    @Test
+    public void givenEmployeesOfTwoDomains_whenDeleteEmployeesByEmailDomain_thenOnlyExactDomainIsDeleted() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        employeeRepository.save(Employee.builder().firstName("Jean").lastName("Paul").email("Jean.Paul@Contractor.com").build());
+        // when -action or the behavior that we are going test
+        ResultActions wildcard=mockMvc.perform(delete("/api/employees").param("emailDomain", "%"));
+        ResultActions blank=mockMvc.perform(delete("/api/employees").param("emailDomain", " "));
+        ResultActions response=mockMvc.perform(delete("/api/employees").param("emailDomain", "contractor.com"));
+        // then - verify the output
+        wildcard.andExpect(status().isBadRequest());
+        blank.andExpect(status().isBadRequest());
+        response.andDo(print()).andExpect(status().isOk()).andExpect(jsonPath("$.deleted", CoreMatchers.is(1)));
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly("Raphael@yahoo.fr");
+    }
+
+    // Junit test for statements per request metric
+    @DisplayName("Junit test for statements per request metric")
+    @Test
+    public void givenEmployeesRequest_whenGetStatementsPerRequestMetric_thenReturnRecordedStatements() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        mockMvc.perform(get("/api/employees")).andExpect(status().isOk());
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/actuator/metrics/hibernate.statements.per.request").param("tag", "uri:/api/employees"));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isOk()).andExpect(jsonPath("$.measurements[?(@.statistic=='TOTAL')].value", CoreMatchers.hasItem(CoreMatchers.not(0.0))));
+    }
+
+    // Junit test for statements per request metric of an async request
+    @DisplayName("Junit test for statements per request metric of an async request")
+    @Test
+    public void givenExportRequest_whenGetStatementsPerRequestMetric_thenExportIsNotRecorded() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        MvcResult export=mockMvc.perform(get("/api/employees/export")).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(export)).andExpect(status().isOk());
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(get("/actuator/metrics/hibernate.statements.per.request").param("tag", "uri:/api/employees/export"));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isNotFound());
+    }
+
+    // Junit test for CSV import REST API
+    @DisplayName("Junit test for CSV import REST API")
+    @Test
+    public void givenCsvWithInvalidAndDuplicateRows_whenImportEmployees_thenImportValidRowsAndReportOthers() throws Exception{
+        // given-precondition or setup
+        employeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        StringBuilder csv=new StringBuilder("first_name,last_name,email\n");
+        for(int i=0; i<1500; i++){
+            csv.append("Jean").append(i).append(",\"Paul, Jr\",jean").append(i).append("@yahoo.fr\n");
+        }
+        csv.append("Bouendeu,Raphael,Raphael@yahoo.fr\n");
+        csv.append("Ram,Jadhav,not-an-email\n");
+        csv.append("Jean,Paul,jean1@yahoo.fr\n");
+        // when -action or the behavior that we are going test
+        ResultActions response=mockMvc.perform(post("/api/employees/import").contentType("text/csv").content(csv.toString()));
+        // then - verify the output
+        response.andDo(print()).andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead", CoreMatchers.is(1503)))
+                .andExpect(jsonPath("$.imported", CoreMatchers.is(1500)))
+                .andExpect(jsonPath("$.failed", CoreMatchers.is(3)))
+                .andExpect(jsonPath("$.errors[*].row", CoreMatchers.hasItems(1502, 1503, 1504)));
+        assertThat(employeeRepository.count()).isEqualTo(1501);
+        assertThat(employeeRepository.findByEmail("jean7@yahoo.fr")).hasValueSatisfying(employee->assertThat(employee.getLastName()).isEqualTo("Paul, Jr"));
+    }
+
 }
@@ -0,0 +1,198 @@
+package com.itbcafrica.springtest.integration;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeRow;
+import com.itbcafrica.springtest.repository.ReactiveEmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureWebTestClient
+@ActiveProfiles("reactive")
+public class ReactiveEmployeeControllerIntegrationTests{
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ReactiveEmployeeRepository employeeRepository;
+
+    @BeforeEach
+    public void setup(){
+        employeeRepository.deleteAll().block();
+    }
+
+    // Junit test for create Employee reactive REST API
+    @DisplayName("Junit test for create Employee reactive REST API")
+    @Test
+    public void givenEmployeeObject_whenCreateEmployee_thenReturnSavedEmployee(){
+        // given-precondition or setup
+        Employee employee=Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build();
+        // when -action or the behavior that we are going test
+        WebTestClient.ResponseSpec response=webTestClient.post().uri("/api/employees").contentType(MediaType.APPLICATION_JSON).bodyValue(employee).exchange();
+        // then - verify the output
+        response.expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isNotEmpty()
+                .jsonPath("$.firstName").isEqualTo(employee.getFirstName())
+                .jsonPath("$.email").isEqualTo(employee.getEmail());
+    }
+
+    // Junit test for create Employee reactive REST API with an already existing email
+    @DisplayName("Junit test for create Employee reactive REST API with an already existing email")
+    @Test
+    public void givenExistingEmail_whenCreateEmployee_thenReturn409(){
+        // given-precondition or setup
+        Employee employee=Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build();
+        webTestClient.post().uri("/api/employees").bodyValue(employee).exchange().expectStatus().isCreated();
+        // when -action or the behavior that we are going test
+        WebTestClient.ResponseSpec response=webTestClient.post().uri("/api/employees").bodyValue(employee).exchange();
+        // then - verify the output
+        response.expectStatus().isEqualTo(409);
+    }
+
+    // Junit test for streaming all Employees as NDJSON
+    @DisplayName("Junit test for streaming all Employees as NDJSON")
+    @Test
+    public void givenListOfEmployees_whenStreamEmployees_thenReturnEmployeesOneByOne(){
+        // given-precondition or setup
+        List<Employee> employees=List.of(
+                Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build(),
+                Employee.builder().firstName("Jean").lastName("Paul").email("jean@yahoo.fr").build());
+        webTestClient.post().uri("/api/employees/batch").bodyValue(employees).exchange().expectStatus().isCreated();
+        // when -action or the behavior that we are going test
+        Flux<Employee> body=webTestClient.get().uri("/api/employees").accept(MediaType.APPLICATION_NDJSON).exchange()
+                .expectStatus().isOk()
+                .returnResult(Employee.class).getResponseBody();
+        // then - verify the output
+        StepVerifier.create(body)
+                .assertNext(employee->assertThat(employee.getEmail()).isEqualTo("Raphael@yahoo.fr"))
+                .assertNext(employee->assertThat(employee.getEmail()).isEqualTo("jean@yahoo.fr"))
+                .verifyComplete();
+    }
+
+    // Junit test for update and delete Employee reactive REST API
+    @DisplayName("Junit test for update and delete Employee reactive REST API")
+    @Test
+    public void givenSavedEmployee_whenUpdateThenDelete_thenReturnUpdatedThenNotFound(){
+        // given-precondition or setup
+        Employee employee=Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build();
+        Employee savedEmployee=webTestClient.post().uri("/api/employees").bodyValue(employee).exchange()
+                .expectStatus().isCreated().expectBody(Employee.class).returnResult().getResponseBody();
+        Employee updatedEmployee=Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build();
+        // when -action or the behavior that we are going test
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId()).bodyValue(updatedEmployee).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.email").isEqualTo("ram@gmail.com");
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId()).exchange().expectStatus().isOk();
+        // then - verify the output
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId()).exchange().expectStatus().isNotFound();
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId()).exchange().expectStatus().isNotFound();
+    }
+
+    // Junit test for page and id lookups of the reactive REST API
+    @DisplayName("Junit test for page and id lookups of the reactive REST API")
+    @Test
+    public void givenListOfEmployees_whenGetPageAndLookupIds_thenReturnRequestedEmployees(){
+        // given-precondition or setup
+        List<Employee> employees=List.of(
+                Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build(),
+                Employee.builder().firstName("Jean").lastName("Paul").email("jean@yahoo.fr").build(),
+                Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build());
+        List<Employee> savedEmployees=webTestClient.post().uri("/api/employees/batch").bodyValue(employees).exchange()
+                .expectStatus().isCreated().expectBodyList(Employee.class).returnResult().getResponseBody();
+        Long missingId=savedEmployees.get(2).getId()+1000;
+        // when -action or the behavior that we are going test
+        WebTestClient.ResponseSpec page=webTestClient.get().uri("/api/employees?page=1&size=2").exchange();
+        WebTestClient.ResponseSpec lookup=webTestClient.get().uri("/api/employees?ids={ids}", savedEmployees.get(2).getId()+","+missingId+","+savedEmployees.get(0).getId()).exchange();
+        // then - verify the output
+        page.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.totalElements").isEqualTo(3)
+                .jsonPath("$.content.length()").isEqualTo(1)
+                .jsonPath("$.content[0].email").isEqualTo("ram@gmail.com");
+        lookup.expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.employees[0].email").isEqualTo("ram@gmail.com")
+                .jsonPath("$.employees[1].email").isEqualTo("Raphael@yahoo.fr")
+                .jsonPath("$.missingIds[0]").isEqualTo(missingId);
+        webTestClient.post().uri("/api/employees/lookup").bodyValue(List.of(savedEmployees.get(1).getId())).exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.employees[0].email").isEqualTo("jean@yahoo.fr");
+    }
+
+    // Junit test for entity tags and PATCH of the reactive REST API
+    @DisplayName("Junit test for entity tags and PATCH of the reactive REST API")
+    @Test
+    public void givenSavedEmployee_whenConditionalRequests_thenHonourEntityTags(){
+        // given-precondition or setup
+        Employee employee=Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build();
+        Employee savedEmployee=webTestClient.post().uri("/api/employees").bodyValue(employee).exchange()
+                .expectStatus().isCreated().expectBody(Employee.class).returnResult().getResponseBody();
+        // when -action or the behavior that we are going test
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\"").exchange()
+                .expectStatus().isNotModified();
+        webTestClient.patch().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Employee.builder().firstName("Ram").build()).exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        webTestClient.patch().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"1\"")
+                .bodyValue(Employee.builder().build()).exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+        // then - verify the output
+        webTestClient.get().uri("/api/employees/{id}", savedEmployee.getId()).exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody()
+                .jsonPath("$.firstName").isEqualTo("Ram")
+                .jsonPath("$.lastName").isEqualTo("Raphael");
+        webTestClient.patch().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Employee.builder().firstName("Jean").build()).exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.put().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"0\"").bodyValue(employee).exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"0\"").exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.delete().uri("/api/employees/{id}", savedEmployee.getId()).header(HttpHeaders.IF_MATCH, "\"1\"").exchange()
+                .expectStatus().isOk();
+        webTestClient.patch().uri("/api/employees/{id}", savedEmployee.getId()).bodyValue(Employee.builder().firstName("Jean").build()).exchange()
+                .expectStatus().isNotFound();
+    }
+
+    // Junit test for bulk deletes of the reactive REST API
+    @DisplayName("Junit test for bulk deletes of the reactive REST API")
+    @Test
+    public void givenListOfEmployees_whenDeleteByIdsAndEmailDomain_thenReturnDeletedCounts(){
+        // given-precondition or setup
+        List<Employee> employees=List.of(
+                Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build(),
+                Employee.builder().firstName("Jean").lastName("Paul").email("jean@Contractor.com").build(),
+                Employee.builder().firstName("Ram").lastName("Jadhav").email("ram@contractor.com.evil").build());
+        List<Employee> savedEmployees=webTestClient.post().uri("/api/employees/batch").bodyValue(employees).exchange()
+                .expectStatus().isCreated().expectBodyList(Employee.class).returnResult().getResponseBody();
+        // when -action or the behavior that we are going test
+        webTestClient.delete().uri("/api/employees?emailDomain={domain}", "%").exchange().expectStatus().isBadRequest();
+        WebTestClient.ResponseSpec byDomain=webTestClient.delete().uri("/api/employees?emailDomain=contractor.com").exchange();
+        WebTestClient.ResponseSpec byIds=webTestClient.delete().uri("/api/employees?ids={ids}", savedEmployees.get(0).getId()+","+savedEmployees.get(1).getId()).exchange();
+        // then - verify the output
+        byDomain.expectStatus().isOk().expectBody().jsonPath("$.deleted").isEqualTo(1);
+        byIds.expectStatus().isOk().expectBody().jsonPath("$.deleted").isEqualTo(1);
+        assertThat(employeeRepository.findAll().map(EmployeeRow::getEmail).collectList().block()).containsExactly("ram@contractor.com.evil");
+    }
+
+}
@@ -0,0 +1,144 @@
+package com.itbcafrica.springtest.integration;
+
+import com.itbcafrica.springtest.datasource.ReplicaRoutingDataSource;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.EmployeeRepository;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// primary and replica are two pools on the same embedded H2 database, so replica reads see the primary's writes.
+// Only connections taken on the test thread are recorded: the outbox relay, the purge and the replica checks
+// borrow connections on their own threads at any time
+@SpringBootTest(properties={
+        "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.urls=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.datasource.replica.check-interval-ms=60000",
+        "app.datasource.replica.check-initial-delay-ms=60000"})
+public class ReplicaRoutingIntegrationTests{
+
+    private static final List<Object> routedKeys=new CopyOnWriteArrayList<>();
+
+    private static volatile Thread testThread;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @BeforeEach
+    public void setup(){
+        employeeRepository.deleteAllInBatch();
+        recordRouting();
+        routedKeys.clear();
+        testThread=Thread.currentThread();
+    }
+
+    // Junit test for read-only service calls routed to the replica
+    @DisplayName("Junit test for read-only service calls routed to the replica")
+    @Test
+    public void givenSavedEmployee_whenGetAllEmployees_thenReadFromReplica(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        routedKeys.clear();
+        // when -action or the behavior that we are going test
+        List<EmployeeSummary> employees=employeeService.getAllEmployees();
+        // then - verify the output
+        assertThat(employees).extracting(EmployeeSummary::getId).containsExactly(employee.getId());
+        assertThat(routedKeys).containsExactly("replica-0");
+    }
+
+    // Junit test for cache filling lookups kept on the primary
+    @DisplayName("Junit test for cache filling lookups kept on the primary")
+    @Test
+    public void givenSavedEmployee_whenGetEmployeesByIds_thenReadFromPrimary(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        routedKeys.clear();
+        // when -action or the behavior that we are going test
+        List<Employee> employees=employeeService.getEmployeesByIds(List.of(employee.getId())).getEmployees();
+        // then - verify the output
+        assertThat(employees).extracting(Employee::getId).containsExactly(employee.getId());
+        assertThat(routedKeys).containsExactly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    // Junit test for the cache filling lookup by id kept on the primary
+    @DisplayName("Junit test for the cache filling lookup by id kept on the primary")
+    @Test
+    public void givenSavedEmployee_whenGetEmployeeById_thenReadFromPrimary(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        routedKeys.clear();
+        // when -action or the behavior that we are going test
+        Optional<Employee> loadedEmployee=employeeService.getEmployeeById(employee.getId());
+        Optional<Employee> cachedEmployee=employeeService.getEmployeeById(employee.getId());
+        // then - verify the output
+        assertThat(loadedEmployee).isPresent();
+        assertThat(cachedEmployee).isPresent();
+        assertThat(routedKeys).containsExactly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    // Junit test for writes routed to the primary
+    @DisplayName("Junit test for writes routed to the primary")
+    @Test
+    public void givenEmployee_whenSaveEmployee_thenWriteToPrimary(){
+        // given-precondition or setup
+        // when -action or the behavior that we are going test
+        employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        // then - verify the output
+        assertThat(routedKeys).isNotEmpty().containsOnly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    // puts a recording wrapper around every target of the routing data source, once per context
+    private void recordRouting(){
+        Map<Object,DataSource> targets=replicaRoutingDataSource.getResolvedDataSources();
+        if(targets.get(ReplicaRoutingDataSource.PRIMARY) instanceof RecordingDataSource){
+            return;
+        }
+        Map<Object,Object> recordingTargets=new HashMap<>();
+        targets.forEach((key,target)->recordingTargets.put(key, new RecordingDataSource(key, target)));
+        replicaRoutingDataSource.setTargetDataSources(recordingTargets);
+        replicaRoutingDataSource.setDefaultTargetDataSource(recordingTargets.get(ReplicaRoutingDataSource.PRIMARY));
+        replicaRoutingDataSource.afterPropertiesSet();
+    }
+
+    private static class RecordingDataSource extends DelegatingDataSource{
+
+        private final Object key;
+
+        RecordingDataSource(Object key,DataSource target){
+            super(target);
+            this.key=key;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException{
+            if(Thread.currentThread()==testThread){
+                routedKeys.add(key);
+            }
+            return super.getConnection();
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.itbcafrica.springtest.integration;
+
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeImportReport;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.ShardedEmployeeRepository;
+import com.itbcafrica.springtest.service.EmployeeChangeFeed;
+import com.itbcafrica.springtest.service.EmployeeImportService;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// three embedded H2 databases as shards; spring.datasource is still configured but holds no employees
+@SpringBootTest(properties={
+        "spring.datasource.url=jdbc:h2:mem:sharding;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "app.sharding.urls=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE,jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE,jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE"})
+public class ShardingIntegrationTests{
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private ShardedEmployeeRepository shardedEmployeeRepository;
+
+    @Autowired
+    private EmployeeImportService employeeImportService;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @BeforeEach
+    public void setup(){
+        employeeService.deleteEmployees(employeeService.getAllEmployees().stream().map(EmployeeSummary::getId).collect(Collectors.toList()));
+    }
+
+    // Junit test for employees spread over the shards
+    @DisplayName("Junit test for employees spread over the shards")
+    @Test
+    public void givenEmployees_whenSaveEmployees_thenEveryShardHoldsSomeAndListsAreMergedById(){
+        // given-precondition or setup
+        List<Employee> employees=new ArrayList<>();
+        for(int i=0; i<30; i++){
+            employees.add(Employee.builder().firstName("First"+i).lastName("Last"+i).email("employee"+i+"@yahoo.fr").build());
+        }
+        // when -action or the behavior that we are going test
+        employeeService.saveEmployees(employees);
+        // then - verify the output
+        assertThat(shardedEmployeeRepository.countPerShard()).hasSize(3).allMatch(count->count>0);
+        List<EmployeeSummary> allEmployees=employeeService.getAllEmployees();
+        assertThat(allEmployees).hasSize(30).isSortedAccordingTo(Comparator.comparing(EmployeeSummary::getId));
+        EmployeeCursorPage firstPage=employeeService.getEmployeesAfter(null, 10);
+        EmployeeCursorPage secondPage=employeeService.getEmployeesAfter(firstPage.getNextCursor(), 10);
+        assertThat(secondPage.getContent()).isEqualTo(allEmployees.subList(10, 20));
+        assertThat(employeeService.getEmployeesPage(2, 10).getContent()).isEqualTo(allEmployees.subList(20, 30));
+        assertThat(employeeService.getEmployeesPage(2, 10).getTotalElements()).isEqualTo(30);
+    }
+
+    // Junit test for point lookups and email changes on a sharded store
+    @DisplayName("Junit test for point lookups and email changes on a sharded store")
+    @Test
+    public void givenSavedEmployee_whenChangeEmail_thenEmailLookupFollowsAndOldEmailIsFree(){
+        // given-precondition or setup
+        Employee employee=employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        assertThat(shardedEmployeeRepository.shardOf(employee.getId())).isEqualTo(shardedEmployeeRepository.shardOfEmail("Raphael@yahoo.fr"));
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->employeeService.saveEmployee(Employee.builder().firstName("Other").lastName("Raphael").email("Raphael@yahoo.fr").build()));
+        // when -action or the behavior that we are going test
+        Employee savedEmployee=employeeService.getEmployeeById(employee.getId()).get();
+        savedEmployee.setEmail("raphael.bouendeu@gmail.com");
+        Employee updatedEmployee=employeeService.updateEmployee(savedEmployee);
+        // then - verify the output
+        assertThat(updatedEmployee.getVersion()).isEqualTo(1L);
+        assertThat(employeeService.getEmployeeByEmail("raphael.bouendeu@gmail.com")).get().extracting(Employee::getId).isEqualTo(employee.getId());
+        assertThat(employeeService.getEmployeeByEmail("Raphael@yahoo.fr")).isEmpty();
+        Employee newEmployee=employeeService.saveEmployee(Employee.builder().firstName("Jean").lastName("Paul").email("Raphael@yahoo.fr").build());
+        assertThat(employeeService.getEmployeeByEmail("Raphael@yahoo.fr")).get().extracting(Employee::getId).isEqualTo(newEmployee.getId());
+        assertThat(employeeService.deleteEmployee(employee.getId())).isTrue();
+        assertThat(employeeService.getEmployeeById(employee.getId())).isEmpty();
+    }
+
+    // Junit test for CSV import on a sharded store
+    @DisplayName("Junit test for CSV import on a sharded store")
+    @Test
+    public void givenCsv_whenImportEmployees_thenRowsLandOnTheShardsAndThereIsNoChangeFeed() throws IOException{
+        // given-precondition or setup
+        employeeService.saveEmployee(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("raphael@yahoo.fr").build());
+        StringBuilder csv=new StringBuilder("firstName,lastName,email\n");
+        for(int i=0; i<30; i++){
+            csv.append("First").append(i).append(",Last").append(i).append(",employee").append(i).append("@yahoo.fr\n");
+        }
+        csv.append("Other,Raphael,raphael@yahoo.fr\n");
+        // when -action or the behavior that we are going test
+        EmployeeImportReport report=employeeImportService.importEmployees(new StringReader(csv.toString()));
+        // then - verify the output
+        assertThat(report.getImported()).isEqualTo(30);
+        assertThat(report.getFailed()).isEqualTo(1);
+        assertThat(shardedEmployeeRepository.count()).isEqualTo(31);
+        assertThat(employeeService.getEmployeeByEmail("employee7@yahoo.fr")).isPresent();
+        assertThat(applicationContext.getBeanNamesForType(EmployeeChangeFeed.class)).isEmpty();
+    }
+
+}
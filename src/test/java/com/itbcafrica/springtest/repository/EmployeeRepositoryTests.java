@@ -1,12 +1,22 @@
 package com.itbcafrica.springtest.repository;
 
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.hql.internal.ast.ASTQueryTranslatorFactory;
+import org.hibernate.hql.spi.QueryTranslator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,6 +27,9 @@ public class EmployeeRepositoryTests{
     @Autowired
     private EmployeeRepository employeeRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Employee employee;
 
     @BeforeEach
@@ -92,6 +105,37 @@ public class EmployeeRepositoryTests{
         assertThat(employee1DBUpdate.getEmail()).isEqualTo(employee1DB.getEmail());
     }
 
+    // Junit test for partial update employee operation
+    @DisplayName("Junit test for partial update employee operation")
+    @Test
+    public void givenEmployeePatch_whenUpdateNonNullFields_thenOnlyGivenFieldsAreUpdated(){
+        // given-precondition or setup
+        employeeRepository.save(employee);
+        Employee patch=Employee.builder().email("sergio@yahoo.com").build();
+        // when -action or the behavior that we are going test
+        int updatedRows=employeeRepository.updateNonNullFields(employee.getId(), patch, null);
+        entityManager.clear();
+        Employee employeeDB=employeeRepository.findById(employee.getId()).get();
+        // then - verify the output
+        assertThat(updatedRows).isEqualTo(1);
+        assertThat(employeeDB.getEmail()).isEqualTo(patch.getEmail());
+        assertThat(employeeDB.getFirstName()).isEqualTo("Bouendeu");
+        assertThat(employeeDB.getVersion()).isEqualTo(employee.getVersion()+1);
+    }
+
+    // Junit test for partial update employee operation with a stale version
+    @DisplayName("Junit test for partial update employee operation with a stale version")
+    @Test
+    public void givenStaleVersion_whenUpdateNonNullFields_thenNoRowIsUpdated(){
+        // given-precondition or setup
+        employeeRepository.save(employee);
+        Employee patch=Employee.builder().email("sergio@yahoo.com").build();
+        // when -action or the behavior that we are going test
+        int updatedRows=employeeRepository.updateNonNullFields(employee.getId(), patch, employee.getVersion()+1);
+        // then - verify the output
+        assertThat(updatedRows).isEqualTo(0);
+    }
+
     // Junit test for delete employee operation
     @DisplayName("Junit test for delete employee operation")
     @Test
@@ -105,6 +149,38 @@ public class EmployeeRepositoryTests{
         assertThat(employeeDB).isEmpty();
     }
 
+    // Junit test for bulk delete by email domain operation
+    @DisplayName("Junit test for bulk delete by email domain operation")
+    @Test
+    public void givenEmployeesOfTwoDomains_whenDeleteEmployeesByEmailDomain_thenOnlyThatDomainIsDeleted(){
+        // given-precondition or setup
+        Employee employee1=Employee.builder().firstName("John").lastName("Berthol").email("john.berthol@contractor.com").build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        // when -action or the behavior that we are going test
+        int deleted=employeeRepository.deleteEmployeesByEmailDomain("contractor.com");
+        entityManager.clear();
+        // then - verify the output
+        assertThat(deleted).isEqualTo(1);
+        assertThat(employeeRepository.findAll()).extracting(Employee::getEmail).containsExactly(employee.getEmail());
+    }
+
+    // Junit test for bulk delete by email domain operation with LIKE wildcards
+    @DisplayName("Junit test for bulk delete by email domain operation with LIKE wildcards")
+    @Test
+    public void givenWildcardEmailDomain_whenDeleteEmployeesByEmailDomain_thenNothingIsDeleted(){
+        // given-precondition or setup
+        Employee employee1=Employee.builder().firstName("John").lastName("Berthol").email("john.berthol@contractor.com").build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        // when -action or the behavior that we are going test
+        int deleted=employeeRepository.deleteEmployeesByEmailDomain("%")+employeeRepository.deleteEmployeesByEmailDomain("contractor.co_")+employeeRepository.deleteEmployeesByEmailDomain("tractor.com");
+        entityManager.clear();
+        // then - verify the output
+        assertThat(deleted).isZero();
+        assertThat(employeeRepository.count()).isEqualTo(2);
+    }
+
     // Junit test for custom query using JPQL with index
     @DisplayName("Junit test for custom query using JPQL with index")
     @Test
@@ -157,4 +233,89 @@ public class EmployeeRepositoryTests{
         assertThat(employeeDB.getFirstName()).isEqualTo(employee.getFirstName());
     }
 
+    // Junit test for keyset pagination query
+    @DisplayName("Junit test for keyset pagination query")
+    @Test
+    public void givenEmployeeList_whenFindPageAfter_thenReturnNextEmployeesOrderedById(){
+        // given-precondition or setup
+        Employee employee1=Employee.builder().firstName("John").lastName("Berthol").email("john.berthol@objective-partner.com").build();
+        Employee employee2=Employee.builder().firstName("Anna").lastName("Berthol").email("anna.berthol@objective-partner.com").build();
+        employeeRepository.save(employee);
+        employeeRepository.save(employee1);
+        employeeRepository.save(employee2);
+        // when -action or the behavior that we are going test
+        List<EmployeeSummary> employeeList=employeeRepository.findPageAfter(employee.getId(), PageRequest.of(0, 1));
+        // then - verify the output
+        assertThat(employeeList).hasSize(1);
+        assertThat(employeeList.get(0).getId()).isEqualTo(employee1.getId());
+    }
+
+    // Junit test for list variants of the name queries
+    @DisplayName("Junit test for list variants of the name queries")
+    @Test
+    public void givenEmployeesWithSameName_whenFindAllByName_thenReturnAllUpToLimit(){
+        // given-precondition or setup
+        Employee namesake=Employee.builder().firstName(employee.getFirstName()).lastName(employee.getLastName()).email("raphael.bouendeu@yahoo.fr").build();
+        Employee other=Employee.builder().firstName("John").lastName(employee.getLastName()).email("john@objective-partner.com").build();
+        employeeRepository.saveAll(List.of(employee, namesake, other));
+        Pageable firstTwo=PageRequest.of(0, 2);
+        // when -action or the behavior that we are going test
+        List<List<Employee>> results=List.of(
+                employeeRepository.findAllByJPQL(employee.getFirstName(), employee.getLastName(), firstTwo),
+                employeeRepository.findAllByJPQLNamedParams(employee.getFirstName(), employee.getLastName(), firstTwo),
+                employeeRepository.findAllByNativeSQL(employee.getFirstName(), employee.getLastName(), firstTwo),
+                employeeRepository.findAllByNativeSQLNamedParams(employee.getFirstName(), employee.getLastName(), firstTwo));
+        // then - verify the output
+        for(List<Employee> employees: results){
+            assertThat(employees).extracting(Employee::getId).containsExactly(employee.getId(), namesake.getId());
+        }
+        assertThat(employeeRepository.findAllByJPQL(employee.getFirstName(), employee.getLastName(), PageRequest.of(0, 1))).hasSize(1);
+    }
+
+    // Junit test for index usage of the name queries, checked on the H2 query plan
+    @DisplayName("Junit test for index usage of the name queries")
+    @Test
+    public void givenNameQueries_whenExplain_thenPlanUsesNameIndex() throws Exception{
+        // given-precondition or setup
+        List<String> jpqlQueries=List.of(queryOf("findByJPQL", String.class, String.class), queryOf("findByJPQLNamedParams", String.class, String.class),
+                queryOf("findAllByJPQL", String.class, String.class, Pageable.class), queryOf("findAllByJPQLNamedParams", String.class, String.class, Pageable.class));
+        List<String> nativeQueries=List.of(queryOf("findByNativeSQL", String.class, String.class), queryOf("findByNativeSQLNamedParams", String.class, String.class),
+                queryOf("findAllByNativeSQL", String.class, String.class, Pageable.class), queryOf("findAllByNativeSQLNamedParams", String.class, String.class, Pageable.class));
+        // when -action or the behavior that we are going test
+        List<String> plans=new ArrayList<>();
+        for(String jpql: jpqlQueries){
+            plans.add(explain(toSql(jpql)));
+        }
+        for(String sql: nativeQueries){
+            plans.add(explain(sql.replace(":firstName", "?1").replace(":lastName", "?2")));
+        }
+        String emailPlan=explain("select * from employees e where e.email=?1");
+        // then - verify the output
+        for(String plan: plans){
+            assertThat(plan).containsIgnoringCase(Employee.NAME_INDEX).doesNotContainIgnoringCase("tableScan");
+        }
+        assertThat(emailPlan).containsIgnoringCase(Employee.EMAIL_UNIQUE_INDEX);
+    }
+
+    private static String queryOf(String methodName,Class<?>... parameterTypes) throws NoSuchMethodException{
+        return EmployeeRepository.class.getMethod(methodName, parameterTypes).getAnnotation(Query.class).value();
+    }
+
+    // the SQL Hibernate generates for a JPQL query, with ? placeholders
+    private String toSql(String jpql){
+        SessionFactoryImplementor sessionFactory=entityManager.getEntityManager().getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+        QueryTranslator translator=new ASTQueryTranslatorFactory().createQueryTranslator(jpql, jpql, Collections.emptyMap(), sessionFactory, null);
+        translator.compile(Collections.emptyMap(), false);
+        return translator.getSQLString();
+    }
+
+    private String explain(String sql){
+        javax.persistence.Query explain=entityManager.getEntityManager().createNativeQuery("explain "+sql);
+        int parameters=(int) sql.chars().filter(c->c=='?').count();
+        for(int i=1; i<=parameters; i++){
+            explain.setParameter(i, "x");
+        }
+        return String.valueOf(explain.getSingleResult());
+    }
+
 }
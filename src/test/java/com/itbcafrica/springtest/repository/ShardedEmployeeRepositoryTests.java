@@ -0,0 +1,168 @@
+package com.itbcafrica.springtest.repository;
+
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
+import com.itbcafrica.springtest.model.Employee;
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardedEmployeeRepositoryTests{
+
+    private ShardedEmployeeRepository shardedEmployeeRepository;
+
+    private List<DataSource> shards;
+
+    @BeforeEach
+    public void setup(){
+        // fresh databases per test
+        String prefix=UUID.randomUUID().toString();
+        shards=new ArrayList<>();
+        for(int i=0; i<3; i++){
+            JdbcDataSource dataSource=new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:"+prefix+"-"+i+";DB_CLOSE_DELAY=-1");
+            shards.add(dataSource);
+        }
+        shardedEmployeeRepository=new ShardedEmployeeRepository(shards);
+        shardedEmployeeRepository.createSchema();
+    }
+
+    @AfterEach
+    public void tearDown(){
+        shardedEmployeeRepository.shutdown();
+    }
+
+    // Junit test for k-way merge of id-ordered shard results
+    @DisplayName("Junit test for k-way merge of id-ordered shard results")
+    @Test
+    public void givenSortedShardResults_whenMergeById_thenGlobalOrderWithSkipAndLimit(){
+        // given-precondition or setup
+        List<List<Long>> shardResults=List.of(List.of(1L, 4L, 7L), List.of(2L, 5L), List.of(3L, 6L, 8L, 9L));
+        // when -action or the behavior that we are going test
+        List<Long> merged=ShardedEmployeeRepository.mergeById(shardResults, Long::longValue, 2, 4);
+        // then - verify the output
+        assertThat(merged).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    // Junit test for name query run on every shard
+    @DisplayName("Junit test for name query run on every shard")
+    @Test
+    public void givenSameNameOnSeveralShards_whenFindByName_thenAllMatchesInIdOrder(){
+        // given-precondition or setup
+        List<Employee> employees=new ArrayList<>();
+        for(int i=0; i<12; i++){
+            employees.add(Employee.builder().firstName("Bouendeu").lastName(i%2==0 ? "Raphael" : "Paul").email("raphael"+i+"@yahoo.fr").build());
+        }
+        shardedEmployeeRepository.saveAll(employees);
+        // when -action or the behavior that we are going test
+        List<Employee> found=shardedEmployeeRepository.findByName("Bouendeu", "Raphael");
+        // then - verify the output
+        assertThat(found).hasSize(6).extracting(Employee::getLastName).containsOnly("Raphael");
+        assertThat(found).extracting(Employee::getId).isSorted();
+        assertThat(found).extracting(employee->shardedEmployeeRepository.shardOf(employee.getId())).hasSizeGreaterThan(1);
+    }
+
+    // Junit test for an update with a stale version
+    @DisplayName("Junit test for an update with a stale version")
+    @Test
+    public void givenStaleVersion_whenUpdate_thenThrowsExceptionAndNewEmailIsNotClaimed(){
+        // given-precondition or setup
+        Employee employee=shardedEmployeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("Raphael@yahoo.fr").build());
+        Employee stale=new Employee(employee.getId(), "Jean", "Paul", "jean@yahoo.fr", employee.getVersion()+1);
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(PreconditionFailedException.class, ()->shardedEmployeeRepository.update(stale));
+        // then - verify the output
+        assertThat(shardedEmployeeRepository.findExistingEmails(List.of("jean@yahoo.fr", "Raphael@yahoo.fr"))).containsExactly("Raphael@yahoo.fr");
+        assertThat(shardedEmployeeRepository.findById(employee.getId())).get().extracting(Employee::getEmail).isEqualTo("Raphael@yahoo.fr");
+    }
+
+    // Junit test for email domain lookup run on every shard
+    @DisplayName("Junit test for email domain lookup run on every shard")
+    @Test
+    public void givenEmployeesOfTwoDomains_whenFindIdsByEmailDomain_thenOnlyExactDomainMatches(){
+        // given-precondition or setup
+        List<Employee> employees=new ArrayList<>();
+        for(int i=0; i<6; i++){
+            employees.add(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("raphael"+i+(i%2==0 ? "@Contractor.com" : "@yahoo.fr")).build());
+        }
+        shardedEmployeeRepository.saveAll(employees);
+        // when -action or the behavior that we are going test
+        List<Long> ids=shardedEmployeeRepository.findIdsByEmailDomain("contractor.com");
+        // then - verify the output
+        assertThat(ids).hasSize(3);
+        assertThat(shardedEmployeeRepository.findIdsByEmailDomain("%")).isEmpty();
+        assertThat(shardedEmployeeRepository.findIdsByEmailDomain("yahoo.f_")).isEmpty();
+    }
+
+    // Junit test for a batch failing on one shard
+    @DisplayName("Junit test for a batch failing on one shard")
+    @Test
+    public void givenEmailTakenOnOneShard_whenSaveAll_thenNoShardKeepsTheBatch(){
+        // given-precondition or setup
+        shardedEmployeeRepository.saveAll(List.of(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("raphael@yahoo.fr").build()));
+        List<Employee> employees=new ArrayList<>();
+        for(int i=0; i<12; i++){
+            employees.add(Employee.builder().firstName("First"+i).lastName("Last"+i).email("employee"+i+"@yahoo.fr").build());
+        }
+        employees.add(Employee.builder().firstName("Other").lastName("Raphael").email("raphael@yahoo.fr").build());
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->shardedEmployeeRepository.saveAll(employees));
+        // then - verify the output
+        assertThat(shardedEmployeeRepository.count()).isEqualTo(1);
+        assertThat(shardedEmployeeRepository.findByEmail("employee0@yahoo.fr")).isEmpty();
+        assertThat(shardedEmployeeRepository.findByEmail("raphael@yahoo.fr")).get().extracting(Employee::getFirstName).isEqualTo("Bouendeu");
+    }
+
+    // Junit test for directory entries left behind by an email change that did not complete
+    @DisplayName("Junit test for directory entries left behind by an email change that did not complete")
+    @Test
+    public void givenStaleDirectoryEntries_whenSaveAndSaveAll_thenBothTakeThemOver(){
+        // given-precondition or setup
+        for(String email: List.of("single@yahoo.fr", "batch@yahoo.fr")){
+            new JdbcTemplate(shards.get(shardedEmployeeRepository.shardOfEmail(email))).update("insert into employee_emails (email, employee_id) values (?, ?)", email, 999_999L);
+        }
+        List<String> existingBefore=shardedEmployeeRepository.findExistingEmails(List.of("single@yahoo.fr", "batch@yahoo.fr"));
+        // when -action or the behavior that we are going test
+        Employee single=shardedEmployeeRepository.save(Employee.builder().firstName("Bouendeu").lastName("Raphael").email("single@yahoo.fr").build());
+        shardedEmployeeRepository.saveAll(List.of(Employee.builder().firstName("Jean").lastName("Paul").email("batch@yahoo.fr").build()));
+        // then - verify the output
+        assertThat(existingBefore).isEmpty();
+        assertThat(shardedEmployeeRepository.findByEmail("single@yahoo.fr")).get().extracting(Employee::getId).isEqualTo(single.getId());
+        assertThat(shardedEmployeeRepository.findByEmail("batch@yahoo.fr")).get().extracting(Employee::getFirstName).isEqualTo("Jean");
+        assertThat(shardedEmployeeRepository.findExistingEmails(List.of("single@yahoo.fr", "batch@yahoo.fr"))).containsExactlyInAnyOrder("single@yahoo.fr", "batch@yahoo.fr");
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->shardedEmployeeRepository.saveAll(List.of(Employee.builder().firstName("Other").lastName("Paul").email("single@yahoo.fr").build())));
+    }
+
+    // Junit test for closing the shard pools
+    @DisplayName("Junit test for closing the shard pools")
+    @Test
+    public void givenPooledShards_whenShutdown_thenEveryPoolClosed(){
+        // given-precondition or setup
+        String prefix=UUID.randomUUID().toString();
+        List<HikariDataSource> pools=new ArrayList<>();
+        for(int i=0; i<2; i++){
+            HikariDataSource pool=new HikariDataSource();
+            pool.setJdbcUrl("jdbc:h2:mem:"+prefix+"-"+i+";DB_CLOSE_DELAY=-1");
+            pools.add(pool);
+        }
+        ShardedEmployeeRepository pooledRepository=new ShardedEmployeeRepository(new ArrayList<>(pools));
+        pooledRepository.createSchema();
+        // when -action or the behavior that we are going test
+        pooledRepository.shutdown();
+        // then - verify the output
+        assertThat(pools).allMatch(HikariDataSource::isClosed);
+    }
+
+}
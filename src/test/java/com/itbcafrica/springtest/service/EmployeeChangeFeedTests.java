@@ -0,0 +1,248 @@
+package com.itbcafrica.springtest.service;
+
+import com.itbcafrica.springtest.exception.ChangesPurgedException;
+import com.itbcafrica.springtest.model.EmployeeChange;
+import com.itbcafrica.springtest.repository.EmployeeChangeRepository;
+import com.itbcafrica.springtest.service.impl.EmployeeChangeFeedImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness=Strictness.LENIENT)
+public class EmployeeChangeFeedTests{
+
+    @Mock
+    private EmployeeChangeRepository changeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final List<EmployeeChange> outbox=new ArrayList<>();
+
+    private final CountDownLatch releaseSlowClient=new CountDownLatch(1);
+
+    private final CountDownLatch fastClientReceivedAll=new CountDownLatch(4);
+
+    private EmployeeChangeFeedImpl employeeChangeFeed;
+
+    @BeforeEach
+    public void setup(){
+        given(changeRepository.findMaxOffset()).willAnswer(invocation->outbox.stream().map(EmployeeChange::getOffset).filter(Objects::nonNull).max(Long::compare));
+        given(changeRepository.findUnpublished(any())).willAnswer(invocation->{
+            List<EmployeeChange> pending=new ArrayList<>();
+            outbox.stream().filter(change->change.getOffset()==null).forEach(pending::add);
+            return pending;
+        });
+        given(changeRepository.findPublishedAfter(anyLong(), any())).willAnswer(invocation->outbox.stream()
+                .filter(change->change.getOffset()!=null && change.getOffset()>invocation.getArgument(0, Long.class))
+                .sorted(Comparator.comparing(EmployeeChange::getOffset))
+                .limit(invocation.getArgument(1, Pageable.class).getPageSize())
+                .collect(Collectors.toList()));
+        // buffers of 3 events, sends blocked for more than 100ms drop the subscriber
+        employeeChangeFeed=new EmployeeChangeFeedImpl(changeRepository, transactionManager, 60000, 3, Duration.ofMillis(100), 2, Duration.ofDays(7)){
+            private int subscriptions;
+
+            @Override
+            protected SseEmitter createEmitter(long timeoutMs){
+                return subscriptions++==0 ? new SlowEmitter() : new FastEmitter();
+            }
+        };
+    }
+
+    @AfterEach
+    public void tearDown(){
+        releaseSlowClient.countDown();
+        employeeChangeFeed.shutdown();
+    }
+
+    // Junit test for a stalled subscriber of the change feed
+    @DisplayName("Junit test for a stalled subscriber of the change feed")
+    @Test
+    public void givenStalledSubscriber_whenRelay_thenOtherSubscribersStillGetEveryChange() throws Exception{
+        // given-precondition or setup
+        employeeChangeFeed.subscribe(0L);
+        employeeChangeFeed.subscribe(0L);
+        outbox.add(EmployeeChange.deleted(1L));
+        employeeChangeFeed.relay();
+        // when -action or the behavior that we are going test
+        outbox.add(EmployeeChange.deleted(2L));
+        outbox.add(EmployeeChange.deleted(3L));
+        employeeChangeFeed.relay();
+        Thread.sleep(200);
+        outbox.add(EmployeeChange.deleted(4L));
+        employeeChangeFeed.relay();
+        // then - verify the output
+        assertThat(fastClientReceivedAll.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    // Junit test for a subscriber catching up on more changes than its buffer holds
+    @DisplayName("Junit test for a subscriber catching up on more changes than its buffer holds")
+    @Test
+    public void givenBacklogAndLiveChangesBeyondBuffer_whenSubscribe_thenEveryChangeIsSent() throws Exception{
+        // given-precondition or setup
+        for(long id=1; id<=10; id++){
+            outbox.add(EmployeeChange.deleted(id));
+        }
+        employeeChangeFeed.relay();
+        CountDownLatch catchUpStarted=new CountDownLatch(1);
+        CountDownLatch releaseCatchUp=new CountDownLatch(1);
+        List<String> receivedIds=new CopyOnWriteArrayList<>();
+        CountDownLatch receivedAll=new CountDownLatch(15);
+        EmployeeChangeFeedImpl catchingUpFeed=new EmployeeChangeFeedImpl(changeRepository, transactionManager, 60000, 3, Duration.ofSeconds(10), 1, Duration.ofDays(7)){
+            @Override
+            protected SseEmitter createEmitter(long timeoutMs){
+                return new SseEmitter(){
+                    @Override
+                    public void send(SseEventBuilder builder) throws IOException{
+                        catchUpStarted.countDown();
+                        try{
+                            releaseCatchUp.await(5, TimeUnit.SECONDS);
+                        }catch(InterruptedException e){
+                            Thread.currentThread().interrupt();
+                        }
+                        receivedIds.add(idOf(builder));
+                        receivedAll.countDown();
+                    }
+                };
+            }
+        };
+        try{
+            catchingUpFeed.subscribe(0L);
+            assertThat(catchUpStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            // when -action or the behavior that we are going test
+            for(long id=11; id<=15; id++){
+                outbox.add(EmployeeChange.deleted(id));
+            }
+            catchingUpFeed.relay();
+            releaseCatchUp.countDown();
+            // then - verify the output
+            assertThat(receivedAll.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(receivedIds).containsExactly("1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15");
+        }finally{
+            releaseCatchUp.countDown();
+            catchingUpFeed.shutdown();
+        }
+    }
+
+    // Junit test for a subscriber resuming from a purged offset
+    @DisplayName("Junit test for a subscriber resuming from a purged offset")
+    @Test
+    public void givenPurgedOffset_whenSubscribe_thenThrowsException(){
+        // given-precondition or setup
+        given(changeRepository.findMinOffset()).willReturn(Optional.of(5L));
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(ChangesPurgedException.class, ()->{
+            employeeChangeFeed.subscribe(3L);
+        });
+        // then - verify the output
+        assertThat(employeeChangeFeed.subscribe(4L)).isNotNull();
+    }
+
+    // Junit test for a catch-up that read a table missing the newest changes
+    @DisplayName("Junit test for a catch-up that read a table missing the newest changes")
+    @Test
+    public void givenCatchUpBehindRelay_whenLiveEventLeavesGap_thenMissingChangesReadFromTable() throws Exception{
+        // given-precondition or setup
+        for(long id=1; id<=3; id++){
+            outbox.add(EmployeeChange.deleted(id));
+        }
+        employeeChangeFeed.relay();
+        // the catch-up only sees offset 1, like a lagging replica would
+        AtomicBoolean behind=new AtomicBoolean(true);
+        willAnswer(invocation->outbox.stream()
+                .filter(change->change.getOffset()!=null && change.getOffset()>invocation.getArgument(0, Long.class))
+                .filter(change->!behind.get() || change.getOffset()<=1)
+                .sorted(Comparator.comparing(EmployeeChange::getOffset))
+                .limit(invocation.getArgument(1, Pageable.class).getPageSize())
+                .collect(Collectors.toList())).given(changeRepository).findPublishedAfter(anyLong(), any());
+        List<String> receivedIds=new CopyOnWriteArrayList<>();
+        CountDownLatch receivedAll=new CountDownLatch(4);
+        EmployeeChangeFeedImpl recordingFeed=new EmployeeChangeFeedImpl(changeRepository, transactionManager, 60000, 3, Duration.ofSeconds(10), 1, Duration.ofDays(7)){
+            @Override
+            protected SseEmitter createEmitter(long timeoutMs){
+                return new SseEmitter(){
+                    @Override
+                    public void send(SseEventBuilder builder){
+                        receivedIds.add(idOf(builder));
+                        receivedAll.countDown();
+                    }
+                };
+            }
+        };
+        try{
+            recordingFeed.subscribe(0L);
+            Thread.sleep(200);
+            // when -action or the behavior that we are going test
+            behind.set(false);
+            outbox.add(EmployeeChange.deleted(4L));
+            recordingFeed.relay();
+            // then - verify the output
+            assertThat(receivedAll.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(receivedIds).containsExactly("1", "2", "3", "4");
+            ArgumentCaptor<TransactionDefinition> definitions=ArgumentCaptor.forClass(TransactionDefinition.class);
+            verify(transactionManager, atLeastOnce()).getTransaction(definitions.capture());
+            assertThat(definitions.getAllValues()).noneMatch(TransactionDefinition::isReadOnly);
+        }finally{
+            recordingFeed.shutdown();
+        }
+    }
+
+    private static String idOf(SseEmitter.SseEventBuilder builder){
+        String event=builder.build().stream().map(data->String.valueOf(data.getData())).collect(Collectors.joining());
+        return event.substring(event.indexOf("id:")+3, event.indexOf('\n', event.indexOf("id:")));
+    }
+
+    // the first subscriber never gets past its first event
+    private final class SlowEmitter extends SseEmitter{
+        @Override
+        public void send(SseEventBuilder builder){
+            try{
+                releaseSlowClient.await(10, TimeUnit.SECONDS);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private final class FastEmitter extends SseEmitter{
+        @Override
+        public void send(SseEventBuilder builder){
+            fastClientReceivedAll.countDown();
+        }
+    }
+
+}
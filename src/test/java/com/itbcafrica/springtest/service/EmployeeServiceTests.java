@@ -1,9 +1,17 @@
 package com.itbcafrica.springtest.service;
 
-import com.itbcafrica.springtest.exception.ResourceNotFoundException;
+import com.itbcafrica.springtest.exception.PreconditionFailedException;
+import com.itbcafrica.springtest.exception.ResourceAlreadyExistsException;
 import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeChange;
+import com.itbcafrica.springtest.model.EmployeeCursorPage;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.EmployeeChangeRepository;
 import com.itbcafrica.springtest.repository.EmployeeRepository;
 import com.itbcafrica.springtest.service.impl.EmployeeServiceImpl;
+import com.itbcafrica.springtest.service.support.EmployeeSearchIndex;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,15 +20,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.BDDMockito.given;
-import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,6 +46,15 @@ public class EmployeeServiceTests{
     @Mock
     private EmployeeRepository employeeRepository;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EmployeeSearchIndex searchIndex;
+
+    @Mock
+    private EmployeeChangeRepository changeRepository;
+
     @InjectMocks
     private EmployeeServiceImpl employeeService;
 
@@ -47,9 +71,7 @@ public class EmployeeServiceTests{
     @Test
     public void givenEmployeeObject_whenSaveEmployee_thenReturnEmployeeObject(){
         // given-precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.empty());
-
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
 
         // when -action or the behavior that we are going test
         Employee savedEmployee=employeeService.saveEmployee(employee);
@@ -57,18 +79,54 @@ public class EmployeeServiceTests{
         assertThat(savedEmployee).isNotNull();
     }
 
+    // Junit test for search index changes of savedEmployee method applied on commit only
+    @DisplayName("Junit test for search index changes of savedEmployee method applied on commit only")
+    @Test
+    public void givenTransaction_whenSaveEmployee_thenSearchIndexChangesAfterCommitOnly(){
+        // given-precondition or setup
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
+        TransactionSynchronizationManager.initSynchronization();
+        try{
+            // when -action or the behavior that we are going test
+            employeeService.saveEmployee(employee);
+            // then - verify the output
+            verify(searchIndex, never()).put(any(Employee.class));
+            TransactionSynchronizationUtils.triggerAfterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            verify(searchIndex, never()).put(any(Employee.class));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+            verify(searchIndex).put(employee);
+        }finally{
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
     // Junit test for savedEmployee method with throw exception
     @DisplayName("Junit test for savedEmployee method with throw exception")
     @Test
     public void givenExistingEmailEmployeeObject_whenSaveEmployee_thenThrowsException(){
         // given-precondition or setup
-        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate email", new ConstraintViolationException("duplicate email", null, Employee.EMAIL_UNIQUE_INDEX)));
         // when -action or the behavior that we are going test
-        Assertions.assertThrows(ResourceNotFoundException.class, ()->{
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->{
             employeeService.saveEmployee(employee);
         });
         //then
-        verify(employeeRepository, never()).save(any(Employee.class));
+        verify(employeeRepository, never()).findByEmail(any(String.class));
+    }
+
+    // Junit test for saveEmployees method with an already existing email
+    @DisplayName("Junit test for saveEmployees method with an already existing email")
+    @Test
+    public void givenExistingEmailInEmployeesList_whenSaveEmployees_thenThrowsException(){
+        // given-precondition or setup
+        Employee employee2=Employee.builder().firstName("Bouendeu1").lastName("Raphael1").email("Raphael1@yahoo.fr").build();
+        given(employeeRepository.findExistingEmails(any())).willReturn(List.of(employee.getEmail()));
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->{
+            employeeService.saveEmployees(List.of(employee, employee2));
+        });
+        //then
+        verify(employeeRepository, never()).saveAll(any());
     }
 
     // Junit test for  getAllEmployees method
@@ -76,10 +134,10 @@ public class EmployeeServiceTests{
     @Test
     public void givenEmployeesList_whengetAllEmployees_thenReturnEmployeesList(){
         // given-precondition or setup
-        Employee employee2=Employee.builder().id(1L).firstName("Bouendeu1").lastName("Raphael1").email("Raphael1@yahoo.fr").build();
-        given(employeeRepository.findAll()).willReturn(List.of(employee, employee2));
+        EmployeeSummary employee2=new EmployeeSummary(2L, "Bouendeu1", "Raphael1", "Raphael1@yahoo.fr", 0L);
+        given(employeeRepository.findAllSummaries()).willReturn(List.of(EmployeeSummary.of(employee), employee2));
         // when -action or the behavior that we are going test
-        List<Employee> employeeList=employeeService.getAllEmployees();
+        List<EmployeeSummary> employeeList=employeeService.getAllEmployees();
         // then - verify the output
         assertThat(employeeList).isNotNull();
         assertThat(employeeList.size()).isEqualTo(2);
@@ -91,15 +149,44 @@ public class EmployeeServiceTests{
     @Test
     public void givenEmptyEmployeesList_whengetAllEmployees_thenReturnEmptyEmployeesList(){
         // given-precondition or setup
-        given(employeeRepository.findAll()).willReturn(Collections.EMPTY_LIST);
+        given(employeeRepository.findAllSummaries()).willReturn(Collections.EMPTY_LIST);
         // when -action or the behavior that we are going test
-        List<Employee> employeeList=employeeService.getAllEmployees();
+        List<EmployeeSummary> employeeList=employeeService.getAllEmployees();
         // then - verify the output
         assertThat(employeeList).isEmpty();
         assertThat(employeeList.size()).isEqualTo(0);
 
     }
 
+    // Junit test for getEmployeesAfter method
+    @DisplayName("Junit test for getEmployeesAfter method")
+    @Test
+    public void givenMoreEmployeesThanLimit_whenGetEmployeesAfter_thenReturnPageWithNextCursor(){
+        // given-precondition or setup
+        EmployeeSummary employee2=new EmployeeSummary(2L, "Bouendeu1", "Raphael1", "Raphael1@yahoo.fr", 0L);
+        given(employeeRepository.findPageAfter(0L, PageRequest.of(0, 2))).willReturn(List.of(EmployeeSummary.of(employee), employee2));
+        // when -action or the behavior that we are going test
+        EmployeeCursorPage page=employeeService.getEmployeesAfter(0L, 1);
+        // then - verify the output
+        assertThat(page.getContent()).containsExactly(EmployeeSummary.of(employee));
+        assertThat(page.getNextCursor()).isEqualTo(employee.getId());
+    }
+
+    // Junit test for exportEmployees method
+    @DisplayName("Junit test for exportEmployees method")
+    @Test
+    public void givenEmployeesStream_whenExportEmployees_thenConsumerReceivesEveryEmployee(){
+        // given-precondition or setup
+        EmployeeSummary employee1=EmployeeSummary.of(employee);
+        EmployeeSummary employee2=new EmployeeSummary(2L, "Bouendeu1", "Raphael1", "Raphael1@yahoo.fr", 0L);
+        given(employeeRepository.streamAll()).willReturn(Stream.of(employee1, employee2));
+        List<EmployeeSummary> exported=new ArrayList<>();
+        // when -action or the behavior that we are going test
+        employeeService.exportEmployees(exported::add);
+        // then - verify the output
+        assertThat(exported).containsExactly(employee1, employee2);
+    }
+
     // Junit test for get employee by Id
     @DisplayName("Junit test for get employee by Id")
     @Test
@@ -112,12 +199,38 @@ public class EmployeeServiceTests{
         assertThat(employeeDB).isNotNull();
     }
 
+    // Junit test for get employee by email
+    @DisplayName("Junit test for get employee by email")
+    @Test
+    public void givenEmployeeEmail_whenGetEmployeeByEmail_thenReturnEmployeeObject(){
+        // given-precondition or setup
+        given(employeeRepository.findByEmail(employee.getEmail())).willReturn(Optional.of(employee));
+        // when -action or the behavior that we are going test
+        Employee employeeDB=employeeService.getEmployeeByEmail(employee.getEmail()).get();
+        // then - verify the output
+        assertThat(employeeDB).isEqualTo(employee);
+    }
+
+    // Junit test for get employees by ids
+    @DisplayName("Junit test for get employees by ids")
+    @Test
+    public void givenEmployeeIds_whenGetEmployeesByIds_thenReturnEmployeesInRequestOrderAndMissingIds(){
+        // given-precondition or setup
+        Employee employee2=Employee.builder().id(2L).firstName("Bouendeu1").lastName("Raphael1").email("Raphael1@yahoo.fr").build();
+        given(employeeRepository.findAllById(List.of(2L, 3L, 1L))).willReturn(List.of(employee, employee2));
+        // when -action or the behavior that we are going test
+        EmployeeLookupResult result=employeeService.getEmployeesByIds(List.of(2L, 3L, 1L, 2L));
+        // then - verify the output
+        assertThat(result.getEmployees()).containsExactly(employee2, employee);
+        assertThat(result.getMissingIds()).containsExactly(3L);
+    }
+
     // Junit test for update employee method
     @DisplayName("Junit test for update employee method")
     @Test
     public void givenEmployeeObject_whenUpdateEmployee_thenUpdatedEmployee(){
         // given-precondition or setup
-        given(employeeRepository.save(employee)).willReturn(employee);
+        given(employeeRepository.saveAndFlush(employee)).willReturn(employee);
         employee.setEmail("sergio@yahoo.de");
         employee.setFirstName("fernand");
         // when -action or the behavior that we are going test
@@ -125,6 +238,50 @@ public class EmployeeServiceTests{
         // then - verify the output
         assertThat(updateEmployee.getEmail()).isEqualTo(employee.getEmail());
         assertThat(updateEmployee.getFirstName()).isEqualTo(employee.getFirstName());
+        verify(changeRepository).save(argThat(change->change.getType()==EmployeeChange.Type.UPDATED && change.getEmployeeId().equals(employee.getId())));
+    }
+
+    // Junit test for update employee method with an email taken by another employee
+    @DisplayName("Junit test for update employee method with an email taken by another employee")
+    @Test
+    public void givenExistingEmail_whenUpdateEmployee_thenThrowsException(){
+        // given-precondition or setup
+        employee.setEmail("sergio@yahoo.de");
+        given(employeeRepository.saveAndFlush(employee)).willThrow(new DataIntegrityViolationException("duplicate email", new ConstraintViolationException("duplicate email", null, Employee.EMAIL_UNIQUE_INDEX)));
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(ResourceAlreadyExistsException.class, ()->{
+            employeeService.updateEmployee(employee);
+        });
+        // then - verify the output
+        verify(changeRepository, never()).save(any(EmployeeChange.class));
+    }
+
+    // Junit test for patch employee method with a stale version
+    @DisplayName("Junit test for patch employee method with a stale version")
+    @Test
+    public void givenStaleVersion_whenPatchEmployee_thenThrowsException(){
+        // given-precondition or setup
+        Employee patch=Employee.builder().email("sergio@yahoo.de").build();
+        given(employeeRepository.updateNonNullFields(employee.getId(), patch, 2L)).willReturn(0);
+        given(employeeRepository.existsById(employee.getId())).willReturn(true);
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(PreconditionFailedException.class, ()->{
+            employeeService.patchEmployee(employee.getId(), patch, 2L);
+        });
+    }
+
+    // Junit test for patch employee method without fields
+    @DisplayName("Junit test for patch employee method without fields")
+    @Test
+    public void givenEmptyPatch_whenPatchEmployee_thenNothingIsWritten(){
+        // given-precondition or setup
+        given(employeeRepository.findVersionById(employee.getId())).willReturn(Optional.of(3L));
+        // when -action or the behavior that we are going test
+        boolean patched=employeeService.patchEmployee(employee.getId(), Employee.builder().build(), 3L);
+        // then - verify the output
+        assertThat(patched).isTrue();
+        verify(employeeRepository, never()).updateNonNullFields(any(), any(), any());
+        verify(changeRepository, never()).insertUpdatedById(any());
     }
 
     // Junit test for delete Employee method
@@ -132,11 +289,26 @@ public class EmployeeServiceTests{
     @Test
     public void givenEmployeeId_whenDeleteEmployee_thenNothing(){
         // given-precondition or setup
-        willDoNothing().given(employeeRepository).deleteById(employee.getId());
+        given(employeeRepository.deleteEmployeeById(employee.getId())).willReturn(1);
+        // when -action or the behavior that we are going test
+        boolean deleted=employeeService.deleteEmployee(1L);
+        // then - verify the output
+        assertThat(deleted).isTrue();
+        verify(employeeRepository, times(1)).deleteEmployeeById(employee.getId());
+        verify(employeeRepository, never()).findById(employee.getId());
+        verify(searchIndex).remove(employee.getId());
+    }
+
+    // Junit test for delete Employees method
+    @DisplayName("Junit test for delete Employees method")
+    @Test
+    public void givenEmployeeIds_whenDeleteEmployees_thenReturnDeletedCount(){
+        // given-precondition or setup
+        given(employeeRepository.deleteEmployeesByIds(List.of(1L, 2L))).willReturn(2);
         // when -action or the behavior that we are going test
-        employeeService.deleteEmployee(1L);
+        int deleted=employeeService.deleteEmployees(List.of(1L, 2L, 1L));
         // then - verify the output
-        verify(employeeRepository, times(1)).deleteById(employee.getId());
+        assertThat(deleted).isEqualTo(2);
     }
 
 }
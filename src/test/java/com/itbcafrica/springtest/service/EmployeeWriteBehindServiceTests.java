@@ -0,0 +1,130 @@
+package com.itbcafrica.springtest.service;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeCreateStatus;
+import com.itbcafrica.springtest.service.impl.EmployeeWriteBehindServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness=Strictness.LENIENT)
+public class EmployeeWriteBehindServiceTests{
+
+    private static final String TAKEN_EMAIL="taken@yahoo.fr";
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private EmployeeWriteBehindServiceImpl writeBehindService;
+
+    private final AtomicLong ids=new AtomicLong();
+
+    @BeforeEach
+    public void setup(){
+        // the database already has an employee with TAKEN_EMAIL
+        given(employeeService.saveNewEmployees(any())).willAnswer(invocation->{
+            List<Employee> employees=invocation.getArgument(0);
+            return employees.stream()
+                    .filter(employee->!employee.getEmail().equals(TAKEN_EMAIL))
+                    .peek(employee->employee.setId(ids.incrementAndGet()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @AfterEach
+    public void tearDown() throws InterruptedException{
+        if(writeBehindService!=null){
+            writeBehindService.shutdown();
+        }
+    }
+
+    // Junit test for a flush triggered by a full batch
+    @DisplayName("Junit test for a flush triggered by a full batch")
+    @Test
+    public void givenBatchSizeCreates_whenSubmit_thenFlushedAsOneBatchBeforeMaxDelay(){
+        // given-precondition or setup
+        writeBehindService=new EmployeeWriteBehindServiceImpl(employeeService, 100, 3, Duration.ofMinutes(1), Duration.ofMinutes(10));
+        writeBehindService.start();
+        // when -action or the behavior that we are going test
+        for(int i=0; i<3; i++){
+            writeBehindService.submit(employee("batch"+i+"@yahoo.fr"));
+        }
+        // then - verify the output
+        verify(employeeService, timeout(5000)).saveNewEmployees(ArgumentMatchers.argThat(employees->employees.size()==3));
+    }
+
+    // Junit test for a flush triggered by the maximum delay
+    @DisplayName("Junit test for a flush triggered by the maximum delay")
+    @Test
+    public void givenFewerCreatesThanBatchSize_whenSubmit_thenFlushedAfterMaxDelay(){
+        // given-precondition or setup
+        writeBehindService=new EmployeeWriteBehindServiceImpl(employeeService, 100, 50, Duration.ofMillis(20), Duration.ofMinutes(10));
+        writeBehindService.start();
+        // when -action or the behavior that we are going test
+        Optional<EmployeeCreateStatus> status=writeBehindService.submit(employee("delay@yahoo.fr"));
+        // then - verify the output
+        verify(employeeService, timeout(5000)).saveNewEmployees(ArgumentMatchers.argThat(employees->employees.size()==1));
+        assertThat(status).isPresent();
+    }
+
+    // Junit test for a submit to a full queue
+    @DisplayName("Junit test for a submit to a full queue")
+    @Test
+    public void givenFullQueue_whenSubmit_thenCreateIsRejected(){
+        // given-precondition or setup
+        writeBehindService=new EmployeeWriteBehindServiceImpl(employeeService, 2, 50, Duration.ofMillis(10), Duration.ofMinutes(10));
+        writeBehindService.submit(employee("first@yahoo.fr"));
+        writeBehindService.submit(employee("second@yahoo.fr"));
+        // when -action or the behavior that we are going test
+        Optional<EmployeeCreateStatus> rejected=writeBehindService.submit(employee("third@yahoo.fr"));
+        // then - verify the output
+        assertThat(rejected).isEmpty();
+        assertThat(writeBehindService.flush()).isEqualTo(2);
+        assertThat(writeBehindService.submit(employee("third@yahoo.fr"))).isPresent();
+    }
+
+    // Junit test for a batch with taken and repeated emails
+    @DisplayName("Junit test for a batch with taken and repeated emails")
+    @Test
+    public void givenTakenAndRepeatedEmails_whenFlush_thenOnlyThoseCreatesFail(){
+        // given-precondition or setup
+        writeBehindService=new EmployeeWriteBehindServiceImpl(employeeService, 100, 50, Duration.ofMillis(10), Duration.ofMinutes(10));
+        String created=writeBehindService.submit(employee("new@yahoo.fr")).get().getTicket();
+        String taken=writeBehindService.submit(employee(TAKEN_EMAIL)).get().getTicket();
+        String repeated=writeBehindService.submit(employee("new@yahoo.fr")).get().getTicket();
+        String alsoCreated=writeBehindService.submit(employee("other@yahoo.fr")).get().getTicket();
+        // when -action or the behavior that we are going test
+        writeBehindService.flush();
+        // then - verify the output
+        assertThat(writeBehindService.getStatus(created).get().getState()).isEqualTo(EmployeeCreateStatus.State.CREATED);
+        assertThat(writeBehindService.getStatus(alsoCreated).get().getState()).isEqualTo(EmployeeCreateStatus.State.CREATED);
+        assertThat(writeBehindService.getStatus(taken).get().getState()).isEqualTo(EmployeeCreateStatus.State.FAILED);
+        assertThat(writeBehindService.getStatus(repeated).get().getState()).isEqualTo(EmployeeCreateStatus.State.FAILED);
+        verify(employeeService, times(1)).saveNewEmployees(any());
+        verify(employeeService, never()).saveEmployee(any(Employee.class));
+    }
+
+    private static Employee employee(String email){
+        return Employee.builder().firstName("Bouendeu").lastName("Raphael").email(email).build();
+    }
+
+}
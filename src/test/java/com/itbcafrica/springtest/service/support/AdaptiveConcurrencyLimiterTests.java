@@ -0,0 +1,78 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AdaptiveConcurrencyLimiterTests{
+
+    private static final long FAST=TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final long SLOW=TimeUnit.MILLISECONDS.toNanos(500);
+
+    // Junit test for calls over the limit
+    @DisplayName("Junit test for calls over the limit")
+    @Test
+    public void givenLimitReached_whenAcquireWithoutWaiting_thenCallIsShed(){
+        // given-precondition or setup
+        AdaptiveConcurrencyLimiter limiter=new AdaptiveConcurrencyLimiter(2, 1, 10, 2.0, Duration.ofMillis(20));
+        limiter.acquire(Duration.ZERO);
+        limiter.acquire(Duration.ZERO);
+        // when -action or the behavior that we are going test
+        boolean admitted=limiter.acquire(Duration.ZERO);
+        // then - verify the output
+        assertThat(admitted).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(2);
+    }
+
+    // Junit test for a queued call getting a released slot
+    @DisplayName("Junit test for a queued call getting a released slot")
+    @Test
+    public void givenLimitReached_whenSlotIsReleasedWhileWaiting_thenQueuedCallIsAdmitted() throws Exception{
+        // given-precondition or setup
+        AdaptiveConcurrencyLimiter limiter=new AdaptiveConcurrencyLimiter(1, 1, 10, 2.0, Duration.ofMillis(20));
+        limiter.acquire(Duration.ZERO);
+        CompletableFuture<Boolean> queued=CompletableFuture.supplyAsync(()->limiter.acquire(Duration.ofSeconds(5)));
+        Thread.sleep(50);
+        // when -action or the behavior that we are going test
+        limiter.release(FAST, false);
+        // then - verify the output
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    // Junit test for the limit following the observed latency
+    @DisplayName("Junit test for the limit following the observed latency")
+    @Test
+    public void givenFastThenSlowCalls_whenRelease_thenLimitGrowsThenShrinks(){
+        // given-precondition or setup
+        AdaptiveConcurrencyLimiter limiter=new AdaptiveConcurrencyLimiter(4, 2, 100, 2.0, Duration.ofMillis(20));
+        // when -action or the behavior that we are going test
+        for(int i=0; i<200; i++){
+            saturateAndRelease(limiter, FAST);
+        }
+        int grownLimit=limiter.getLimit();
+        for(int i=0; i<50; i++){
+            saturateAndRelease(limiter, SLOW);
+        }
+        // then - verify the output
+        assertThat(grownLimit).isGreaterThan(4);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+    }
+
+    private static void saturateAndRelease(AdaptiveConcurrencyLimiter limiter,long latencyNanos){
+        int admitted=0;
+        while(limiter.acquire(Duration.ZERO)){
+            admitted++;
+        }
+        for(int i=0; i<admitted; i++){
+            limiter.release(latencyNanos, false);
+        }
+    }
+
+}
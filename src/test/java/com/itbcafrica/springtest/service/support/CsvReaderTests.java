@@ -0,0 +1,45 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CsvReaderTests{
+
+    // Junit test for reading quoted and plain CSV records
+    @DisplayName("Junit test for reading quoted and plain CSV records")
+    @Test
+    public void givenCsvWithQuotedFields_whenReadRecord_thenReturnFieldsPerRecord() throws IOException{
+        // given-precondition or setup
+        CsvReader reader=new CsvReader(new StringReader("firstName,lastName,email\r\n\"Bouendeu \"\"Raph\"\"\",\"Line\nBreak, Jr\",raphael@yahoo.fr\n\nJean,,jean@yahoo.fr"), 255, 4096);
+        // when -action or the behavior that we are going test
+        // then - verify the output
+        assertThat(reader.readRecord()).containsExactly("firstName", "lastName", "email");
+        assertThat(reader.readRecord()).containsExactly("Bouendeu \"Raph\"", "Line\nBreak, Jr", "raphael@yahoo.fr");
+        assertThat(reader.readRecord()).containsExactly("Jean", "", "jean@yahoo.fr");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    // Junit test for records and fields over the length limits
+    @DisplayName("Junit test for records and fields over the length limits")
+    @Test
+    public void givenTooLongRecords_whenReadRecord_thenRejectEachAndContinueWithTheNextRecord() throws IOException{
+        // given-precondition or setup
+        String longField="x".repeat(30);
+        CsvReader reader=new CsvReader(new StringReader("Jean,"+longField+",jean@yahoo.fr\nRam,Jadhav,ram@gmail.com\n"+"a,b,c,".repeat(20)+"\nPaul,\"unterminated,paul@yahoo.fr\nJean,Paul,jean@yahoo.fr"), 20, 50);
+        // when -action or the behavior that we are going test
+        // then - verify the output
+        Assertions.assertThrows(CsvReader.RecordTooLongException.class, reader::readRecord);
+        assertThat(reader.readRecord()).containsExactly("Ram", "Jadhav", "ram@gmail.com");
+        Assertions.assertThrows(CsvReader.RecordTooLongException.class, reader::readRecord);
+        // the unterminated quote makes the rest of the input one record, which is read but not kept
+        Assertions.assertThrows(CsvReader.RecordTooLongException.class, reader::readRecord);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+}
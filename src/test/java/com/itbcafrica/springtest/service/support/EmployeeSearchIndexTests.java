@@ -0,0 +1,80 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeSummary;
+import com.itbcafrica.springtest.repository.EmployeeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.core.Ordered;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+public class EmployeeSearchIndexTests{
+
+    private EmployeeSearchIndex searchIndex;
+
+    @BeforeEach
+    public void setup(){
+        searchIndex=new EmployeeSearchIndex(Mockito.mock(EmployeeRepository.class));
+        searchIndex.putAll(List.of(
+                Employee.builder().id(1L).firstName("Bouendeu").lastName("Raphael").email("raphael@yahoo.fr").build(),
+                Employee.builder().id(2L).firstName("Jean").lastName("Paul").email("jean.paul@gmail.com").build(),
+                Employee.builder().id(3L).firstName("Raphaela").lastName("Bou").email("rb@gmail.com").build()));
+    }
+
+    // Junit test for prefix search on names and emails
+    @DisplayName("Junit test for prefix search on names and emails")
+    @Test
+    public void givenIndexedEmployees_whenSearchWithPrefixes_thenReturnEmployeesMatchingEveryTerm(){
+        // given-precondition or setup
+        // when -action or the behavior that we are going test
+        List<EmployeeSummary> byName=searchIndex.search("RAPH", 10);
+        List<EmployeeSummary> byNameAndEmail=searchIndex.search("rap gmail", 10);
+        List<EmployeeSummary> byEmail=searchIndex.search("jean.paul@gm", 10);
+        // then - verify the output
+        assertThat(byName).extracting(EmployeeSummary::getId).containsExactlyInAnyOrder(1L, 3L);
+        assertThat(byNameAndEmail).extracting(EmployeeSummary::getId).containsExactly(3L);
+        assertThat(byEmail).extracting(EmployeeSummary::getId).containsExactly(2L);
+        assertThat(searchIndex.search("rap", 1)).hasSize(1);
+    }
+
+    // Junit test for the index built at startup
+    @DisplayName("Junit test for the index built at startup")
+    @Test
+    public void givenStoredEmployees_whenRun_thenIndexedBeforeOtherRunners(){
+        // given-precondition or setup
+        EmployeeRepository employeeRepository=Mockito.mock(EmployeeRepository.class);
+        given(employeeRepository.streamAll()).willReturn(Stream.of(new EmployeeSummary(4L, "Ram", "Jadhav", "ram@gmail.com", 0L)));
+        EmployeeSearchIndex startupIndex=new EmployeeSearchIndex(employeeRepository);
+        // when -action or the behavior that we are going test
+        startupIndex.run(new DefaultApplicationArguments());
+        // then - verify the output
+        assertThat(startupIndex.search("jadh", 10)).extracting(EmployeeSummary::getId).containsExactly(4L);
+        assertThat(startupIndex.getOrder()).isEqualTo(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    // Junit test for index maintenance on update, patch and delete
+    @DisplayName("Junit test for index maintenance on update, patch and delete")
+    @Test
+    public void givenIndexedEmployees_whenUpdatePatchAndRemove_thenSearchReflectsChanges(){
+        // given-precondition or setup
+        searchIndex.put(Employee.builder().id(2L).firstName("Ram").lastName("Jadhav").email("ram@gmail.com").build());
+        searchIndex.patch(1L, Employee.builder().lastName("Tchami").build());
+        // when -action or the behavior that we are going test
+        searchIndex.remove(3L);
+        // then - verify the output
+        assertThat(searchIndex.search("jean", 10)).isEmpty();
+        assertThat(searchIndex.search("jadh", 10)).extracting(EmployeeSummary::getId).containsExactly(2L);
+        assertThat(searchIndex.search("tcham", 10)).extracting(EmployeeSummary::getFirstName).containsExactly("Bouendeu");
+        assertThat(searchIndex.search("raphaela", 10)).isEmpty();
+        assertThat(searchIndex.size()).isEqualTo(2);
+    }
+
+}
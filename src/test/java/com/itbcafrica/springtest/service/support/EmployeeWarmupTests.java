@@ -0,0 +1,95 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.itbcafrica.springtest.config.CacheConfig;
+import com.itbcafrica.springtest.model.Employee;
+import com.itbcafrica.springtest.model.EmployeeLookupResult;
+import com.itbcafrica.springtest.service.EmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class EmployeeWarmupTests{
+
+    @TempDir
+    Path directory;
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private CaffeineCacheManager cacheManager;
+
+    private Path snapshotFile;
+
+    private EmployeeWarmup employeeWarmup;
+
+    @BeforeEach
+    public void setup(){
+        cacheManager=new CaffeineCacheManager(CacheConfig.EMPLOYEES_CACHE);
+        cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).executor(Runnable::run));
+        snapshotFile=directory.resolve("hot-ids.bin");
+        // no local.server.port, so no warm-up requests are sent
+        employeeWarmup=new EmployeeWarmup(employeeService, cacheManager, new MockEnvironment(), snapshotFile, 2, 200, Duration.ofSeconds(1));
+    }
+
+    // Junit test for reloading the snapshot employees at startup
+    @DisplayName("Junit test for reloading the snapshot employees at startup")
+    @Test
+    public void givenSnapshot_whenRun_thenAtMostMaxIdsLoaded() throws Exception{
+        // given-precondition or setup
+        HotEmployeeSnapshot.write(snapshotFile, List.of(3L, 1L, 2L));
+        Employee employee=Employee.builder().id(3L).firstName("Bouendeu").lastName("Raphael").email("raphael@yahoo.fr").build();
+        given(employeeService.getEmployeesByIds(List.of(3L, 1L))).willReturn(new EmployeeLookupResult(List.of(employee), List.of(1L)));
+        // when -action or the behavior that we are going test
+        employeeWarmup.run(new DefaultApplicationArguments());
+        // then - verify the output
+        verify(employeeService).getEmployeesByIds(List.of(3L, 1L));
+    }
+
+    // Junit test for the snapshot written on shutdown
+    @DisplayName("Junit test for the snapshot written on shutdown")
+    @Test
+    public void givenCachedEmployees_whenWriteSnapshot_thenCachedIdsWritten(){
+        // given-precondition or setup
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        cache.put(5L, "employee 5");
+        cache.put("not an id", "ignored");
+        // when -action or the behavior that we are going test
+        employeeWarmup.writeSnapshot();
+        // then - verify the output
+        assertThat(HotEmployeeSnapshot.read(snapshotFile)).containsExactly(5L);
+    }
+
+    // Junit test for a snapshot bounded by max ids
+    @DisplayName("Junit test for a snapshot bounded by max ids")
+    @Test
+    public void givenMoreCachedEmployeesThanMaxIds_whenWriteSnapshot_thenMaxIdsWritten(){
+        // given-precondition or setup
+        Cache cache=cacheManager.getCache(CacheConfig.EMPLOYEES_CACHE);
+        for(long id=1; id<=5; id++){
+            cache.put(id, "employee "+id);
+        }
+        // when -action or the behavior that we are going test
+        employeeWarmup.writeSnapshot();
+        // then - verify the output
+        assertThat(HotEmployeeSnapshot.read(snapshotFile)).hasSize(2).isSubsetOf(1L, 2L, 3L, 4L, 5L);
+    }
+
+}
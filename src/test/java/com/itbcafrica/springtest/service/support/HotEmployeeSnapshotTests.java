@@ -0,0 +1,44 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HotEmployeeSnapshotTests{
+
+    @TempDir
+    Path directory;
+
+    // Junit test for a snapshot written and read back
+    @DisplayName("Junit test for a snapshot written and read back")
+    @Test
+    public void givenIds_whenWriteAndRead_thenSameIdsInSameOrder() throws Exception{
+        // given-precondition or setup
+        Path file=directory.resolve("snapshot/hot-ids.bin");
+        // when -action or the behavior that we are going test
+        HotEmployeeSnapshot.write(file, List.of(42L, 7L, 1_000_000_000_000L));
+        // then - verify the output
+        assertThat(HotEmployeeSnapshot.read(file)).containsExactly(42L, 7L, 1_000_000_000_000L);
+    }
+
+    // Junit test for a missing or foreign snapshot file
+    @DisplayName("Junit test for a missing or foreign snapshot file")
+    @Test
+    public void givenMissingOrForeignFile_whenRead_thenNoIds() throws Exception{
+        // given-precondition or setup
+        Path foreign=Files.write(directory.resolve("foreign.bin"), "not a snapshot at all".getBytes());
+        // when -action or the behavior that we are going test
+        List<Long> fromMissing=HotEmployeeSnapshot.read(directory.resolve("missing.bin"));
+        List<Long> fromForeign=HotEmployeeSnapshot.read(foreign);
+        // then - verify the output
+        assertThat(fromMissing).isEmpty();
+        assertThat(fromForeign).isEmpty();
+    }
+
+}
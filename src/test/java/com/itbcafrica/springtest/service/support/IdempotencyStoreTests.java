@@ -0,0 +1,72 @@
+package com.itbcafrica.springtest.service.support;
+
+import com.itbcafrica.springtest.exception.IdempotencyKeyReusedException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdempotencyStoreTests{
+
+    private final IdempotencyStore idempotencyStore=new IdempotencyStore(100, Duration.ofMinutes(1));
+
+    // Junit test for a retried request with the same key
+    @DisplayName("Junit test for a retried request with the same key")
+    @Test
+    public void givenStoredKey_whenExecuteAgain_thenStoredResultIsReplayed(){
+        // given-precondition or setup
+        AtomicInteger calls=new AtomicInteger();
+        idempotencyStore.execute("key-1", "request", ()->"employee-"+calls.incrementAndGet());
+        // when -action or the behavior that we are going test
+        String result=idempotencyStore.execute("key-1", "request", ()->"employee-"+calls.incrementAndGet());
+        // then - verify the output
+        assertThat(result).isEqualTo("employee-1");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    // Junit test for a key reused with a different request
+    @DisplayName("Junit test for a key reused with a different request")
+    @Test
+    public void givenStoredKey_whenExecuteWithDifferentRequest_thenThrowsException(){
+        // given-precondition or setup
+        idempotencyStore.execute("key-1", "request", ()->"employee-1");
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(IdempotencyKeyReusedException.class, ()->idempotencyStore.execute("key-1", "other request", ()->"employee-2"));
+        // then - verify the output
+    }
+
+    // Junit test for a request with nothing to store
+    @DisplayName("Junit test for a request with nothing to store")
+    @Test
+    public void givenEmptyResult_whenExecuteIfPresentAgain_thenActionRunsAgain(){
+        // given-precondition or setup
+        Optional<String> first=idempotencyStore.executeIfPresent("key-1", "request", Optional::empty);
+        // when -action or the behavior that we are going test
+        Optional<String> second=idempotencyStore.executeIfPresent("key-1", "request", ()->Optional.of("ticket-1"));
+        Optional<String> replayed=idempotencyStore.executeIfPresent("key-1", "request", ()->Optional.of("ticket-2"));
+        // then - verify the output
+        assertThat(first).isEmpty();
+        assertThat(second).contains("ticket-1");
+        assertThat(replayed).contains("ticket-1");
+    }
+
+    // Junit test for a failed request
+    @DisplayName("Junit test for a failed request")
+    @Test
+    public void givenFailingAction_whenExecuteAgain_thenActionRunsAgain(){
+        // given-precondition or setup
+        Assertions.assertThrows(IllegalStateException.class, ()->idempotencyStore.execute("key-1", "request", ()->{
+            throw new IllegalStateException("database down");
+        }));
+        // when -action or the behavior that we are going test
+        String result=idempotencyStore.execute("key-1", "request", ()->"employee-1");
+        // then - verify the output
+        assertThat(result).isEqualTo("employee-1");
+    }
+
+}
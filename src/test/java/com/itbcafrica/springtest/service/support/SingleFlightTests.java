@@ -0,0 +1,106 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SingleFlightTests{
+
+    private final SingleFlight<Long,String> singleFlight=new SingleFlight<>();
+
+    // Junit test for concurrent calls with the same key
+    @DisplayName("Junit test for concurrent calls with the same key")
+    @Test
+    public void givenConcurrentCallsForSameKey_whenExecute_thenLoaderRunsOnce() throws Exception{
+        // given-precondition or setup
+        AtomicInteger loads=new AtomicInteger();
+        CountDownLatch loaderStarted=new CountDownLatch(1);
+        CountDownLatch releaseLoader=new CountDownLatch(1);
+        ExecutorService executor=Executors.newFixedThreadPool(4);
+        // when -action or the behavior that we are going test
+        List<Future<String>> results=new ArrayList<>();
+        results.add(executor.submit(()->singleFlight.execute(1L, ()->{
+            loads.incrementAndGet();
+            loaderStarted.countDown();
+            await(releaseLoader);
+            return "employee-1";
+        })));
+        loaderStarted.await(5, TimeUnit.SECONDS);
+        for(int i=0; i<3; i++){
+            results.add(executor.submit(()->singleFlight.execute(1L, ()->{
+                loads.incrementAndGet();
+                return "employee-1";
+            })));
+        }
+        // give the followers time to join the call in flight before it completes
+        Thread.sleep(100);
+        releaseLoader.countDown();
+        // then - verify the output
+        for(Future<String> result: results){
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("employee-1");
+        }
+        assertThat(loads.get()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    // Junit test for a failing loader
+    @DisplayName("Junit test for a failing loader")
+    @Test
+    public void givenFailingLoader_whenExecute_thenExceptionIsThrownAndKeyIsReleased(){
+        // when -action or the behavior that we are going test
+        Assertions.assertThrows(IllegalStateException.class, ()->{
+            singleFlight.execute(1L, ()->{
+                throw new IllegalStateException("database down");
+            });
+        });
+        // then - verify the output
+        assertThat(singleFlight.execute(1L, ()->"employee-1")).isEqualTo("employee-1");
+    }
+
+    // Junit test for a loader throwing an error while other callers wait
+    @DisplayName("Junit test for a loader throwing an error while other callers wait")
+    @Test
+    public void givenLoaderThrowingError_whenExecute_thenWaitingCallersGetTheError() throws Exception{
+        // given-precondition or setup
+        CountDownLatch loaderStarted=new CountDownLatch(1);
+        CountDownLatch releaseLoader=new CountDownLatch(1);
+        ExecutorService executor=Executors.newFixedThreadPool(2);
+        // when -action or the behavior that we are going test
+        Future<String> leader=executor.submit(()->singleFlight.execute(1L, ()->{
+            loaderStarted.countDown();
+            await(releaseLoader);
+            throw new AssertionError("loader failed");
+        }));
+        loaderStarted.await(5, TimeUnit.SECONDS);
+        Future<String> follower=executor.submit(()->singleFlight.execute(1L, ()->"employee-1"));
+        Thread.sleep(100);
+        releaseLoader.countDown();
+        // then - verify the output
+        ExecutionException leaderFailure=Assertions.assertThrows(ExecutionException.class, ()->leader.get(5, TimeUnit.SECONDS));
+        assertThat(leaderFailure.getCause()).isInstanceOf(AssertionError.class);
+        ExecutionException followerFailure=Assertions.assertThrows(ExecutionException.class, ()->follower.get(5, TimeUnit.SECONDS));
+        assertThat(followerFailure.getCause()).isInstanceOf(AssertionError.class);
+        executor.shutdown();
+    }
+
+    private static void await(CountDownLatch latch){
+        try{
+            latch.await(5, TimeUnit.SECONDS);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
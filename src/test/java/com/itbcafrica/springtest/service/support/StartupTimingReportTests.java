@@ -0,0 +1,59 @@
+package com.itbcafrica.springtest.service.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(OutputCaptureExtension.class)
+public class StartupTimingReportTests{
+
+    // Junit test for the slowest steps of a buffered startup
+    @DisplayName("Junit test for the slowest steps of a buffered startup")
+    @Test
+    public void givenBufferedStartup_whenReport_thenSlowestStepsLogged(CapturedOutput output) throws Exception{
+        // given-precondition or setup
+        BufferingApplicationStartup applicationStartup=new BufferingApplicationStartup(10);
+        StartupStep slow=applicationStartup.start("slow.step").tag("beanName", "employeeService");
+        Thread.sleep(50);
+        slow.end();
+        applicationStartup.start("fast.step").end();
+        // when -action or the behavior that we are going test
+        new StartupTimingReport(1).report(readyEvent(applicationStartup));
+        // then - verify the output
+        assertThat(output).contains("Startup took 1234 ms, slowest steps:")
+                .contains("slow.step [beanName=employeeService]")
+                .doesNotContain("fast.step");
+    }
+
+    // Junit test for a startup that recorded nothing
+    @DisplayName("Junit test for a startup that recorded nothing")
+    @Test
+    public void givenDefaultStartup_whenReport_thenNothingLogged(CapturedOutput output){
+        // given-precondition or setup
+        ApplicationReadyEvent event=readyEvent(ApplicationStartup.DEFAULT);
+        // when -action or the behavior that we are going test
+        new StartupTimingReport(15).report(event);
+        // then - verify the output
+        assertThat(output).doesNotContain("Startup took");
+    }
+
+    private static ApplicationReadyEvent readyEvent(ApplicationStartup applicationStartup){
+        ConfigurableApplicationContext context=new GenericApplicationContext();
+        context.setApplicationStartup(applicationStartup);
+        return new ApplicationReadyEvent(new SpringApplication(), new String[0], context, Duration.ofMillis(1234));
+    }
+
+}